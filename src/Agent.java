@@ -1,14 +1,15 @@
 import state.Board;
 import state.component.Pawn;
 import state.component.Wall;
+import state.util.TranspositionTable;
 
-import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Computer class
  * <p>
- * Represents two types of automatic move algorithms in Quoridor
+ * Represents three types of automatic move algorithms in Quoridor
  *
  * @author Sean Yang
  * @version 30/05/2024
@@ -16,11 +17,55 @@ import java.util.*;
 public class Agent {
     // declare local variables
     private final int diff;
-    private static Map<Board, List<Integer>> transpositionsOptimals;
-    private static Map<Board, Integer> transpositionsEvals;
-    private static Map<Board, List<List<Integer>>> transpositionsChildren = new HashMap<Board, List<List<Integer>>>();
-    private int searchDepth = 3;
-    private int callCounter; // counts how many times minimax has been called
+    private static final int NO_ACTION = -1; // packed action meaning no move has been found
+    private static final long DEFAULT_TIME_BUDGET = 3000; // milliseconds the hard computer may think for
+    private static final long DEFAULT_NODE_BUDGET = Long.MAX_VALUE; // positions the hard computer may search
+    private static final int DEFAULT_THREADS = 1; // threads the hard computer searches with
+    private static final int MIN_SEARCH_DEPTH = 2; // the first (one move) iteration, which always completes
+    private static final int MAX_SEARCH_DEPTH = 20;
+    private static final int BUDGET_CHECK_INTERVAL = 128; // positions searched between checks of the clock
+    private static final long BUDGET_POLL_INTERVAL = 5; // milliseconds between checks of the clock while the split search runs
+    private static final int MIN_SPLIT_DEPTH = 3; // positions searched less deeply than this are searched on one thread
+    private static final int TABLE_BITS = 20; // log2 of the number of transposition table entries (16 bytes each)
+    private static final int KILLER_SLOTS = 2; // moves remembered at each ply for causing a cutoff
+    private static final int MOVE_SPACE = 1 << 10; // every packed action is less than this
+    private static final int HISTORY_LIMIT = 1 << 24; // history scores are halved once one reaches this
+    private static final int WIN_SCORE = 1_000_000; // score of a win on the next move (one less for every move further away)
+    private static final int MIN_WIN_SCORE = WIN_SCORE - MAX_SEARCH_DEPTH - 1; // scores at least this high are forced wins
+    private static final int UNREACHABLE_DIST = 1_000; // distance counted for a pawn which cannot reach its goal (far below a win)
+    private static final int DRAW_SCORE = 0; // score of a move back into a position the game has already been in
+    private static final TranspositionTable transpositions = new TranspositionTable(TABLE_BITS); // search results by position key, shared by every computer
+    private final long timeBudget; // milliseconds each hard move may take
+    private final long nodeBudget; // positions each hard move may search
+    private final int threads; // threads each hard move is searched with
+    private final boolean splitting; // whether the threads split the tree between them (YBWC) instead of sharing the table
+    private final boolean helper; // whether this is a helper thread's search (which prints nothing and only stops when told)
+    private final Agent[] helpers; // the searches run by the helper threads (empty for a single thread or a split search)
+    private ExecutorService helperPool; // the helper threads (started by the first search which needs them)
+    private volatile boolean stopRequested; // set by the main search to stop a helper's search
+    private ForkJoinPool splitPool; // the threads of the split search (started by the first search which needs them)
+    private final Map<Thread, Agent> splitSearchers = new ConcurrentHashMap<Thread, Agent>(); // the one-thread search of each split search thread
+    private volatile int splitRootMove = NO_ACTION; // the best root move of the last completed split search
+    private SplitPoint splitPoint; // the split point a one-thread search is under (null if it is not part of a split search)
+    private Set<Long> gameKeys = new HashSet<Long>(); // keys of the positions of the game since the last wall (shared with the helpers)
+    private int gameWallCount = -1; // walls left to both players when gameKeys was last added to
+    private int lastDepth; // the depth of the deepest completed search of the last hard move
+    private MonteCarloTree tree; // the expert computer's search tree (kept between turns)
+    private long playoutCount; // playouts the expert computer has run
+    private int searchDepth = MIN_SEARCH_DEPTH;
+    private int callCounter; // counts how many times search has been called
+    private int pvAction = NO_ACTION; // the best root move of the last completed iteration (searched first by the next)
+    private long searchStart; // System.nanoTime() when the current move's search started
+    private long searchNodes; // positions searched for the current move
+    private boolean searchAborted; // whether the budget ran out during the current iteration
+    private int[][] moveBuffers = new int[0][]; // [ply][index] packed moves generated at each ply of the search
+    private int[][] moveScores = new int[0][]; // [ply][index] ordering score of each move (lower is searched first)
+    private int[][] pvTable = new int[0][]; // [ply][ply..] the best line found from each ply (triangular)
+    private int[] pvLength = new int[0]; // [ply] the index just past the end of each ply's line in pvTable
+    private int[][] killers = new int[0][]; // [ply][slot] the latest moves which caused a cutoff at each ply (newest first)
+    private int[] history = new int[MOVE_SPACE]; // [packed move] how much the move has caused cutoffs (deeper counts more)
+    private int[] pawnMoves = new int[Board.getMaxPawnMoves()]; // squares of the pawn moves being added to a move buffer
+    private int[] wallPos = new int[2]; // position of the wall being checked while a move buffer is filled
 
     /**
      * getDiff method
@@ -34,146 +79,198 @@ public class Agent {
     }
 
     /**
-     * deserializeTranspositions method
+     * clearTranspositions method
      * <p>
-     * Gets stored transpositionEvals and transpositionChildren from disk
-     *
-     * @param path {@code String} - The path to the serialized data
+     * Empties the transposition table shared by every computer
      */
-    public static void deserializeTranspositions(String path) {
-        try {
-            // declare variables and open new streams for optimals
-            FileInputStream fis = new FileInputStream(path + "optimals.ser");
-            ObjectInputStream ois = new ObjectInputStream(fis);
-            Object obj = ois.readObject(); // read the object
-
-            transpositionsOptimals = (Map<Board, List<Integer>>) obj; // cast the object
-
-            // close the streams
-            ois.close();
-            fis.close();
-
-            // open new streams for evaluations
-            fis = new FileInputStream(path + "evals.ser");
-            ois = new ObjectInputStream(fis);
-            obj = ois.readObject(); // read the object
-
-            transpositionsEvals = (Map<Board, Integer>) obj; // cast the object
-
-            // close the streams
-            ois.close();
-            fis.close();
-
-            // open new streams for children
-            fis = new FileInputStream(path + "children.ser");
-            ois = new ObjectInputStream(fis);
-            obj = ois.readObject(); // read the object
-
-            transpositionsChildren = (Map<Board, List<List<Integer>>>) obj; // cast the object
+    static void clearTranspositions() {
+        transpositions.clear();
+    }
 
-            // close the streams
-            ois.close();
-            fis.close();
+    /**
+     * Computer method
+     * <p>
+     * Constructor for Computer
+     *
+     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard, 2 for expert)
+     */
+    public Agent(int diff) {
+        this(diff, DEFAULT_TIME_BUDGET, DEFAULT_NODE_BUDGET);
+    }
 
-            System.out.printf("\n%d transpositions successfully loaded.\n",
-                    transpositionsOptimals.size() + transpositionsEvals.size() + transpositionsChildren.size());
+    /**
+     * Computer method
+     * <p>
+     * Constructor for Computer with a search budget for the hard difficulty
+     *
+     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard, 2 for expert)
+     * @param timeBudget {@code long} - The milliseconds each hard move may take
+     * @param nodeBudget {@code long} - The positions each hard move may search (playouts for the expert computer)
+     */
+    public Agent(int diff, long timeBudget, long nodeBudget) {
+        this(diff, timeBudget, nodeBudget, DEFAULT_THREADS);
+    }
 
-            // close the streams
-            ois.close();
-            fis.close();
-        }
-        // catch exceptions
-        catch (IOException | ClassNotFoundException | ClassCastException e) {
-            System.out.println("\n**ERR: Unknown issue occured while loading transpositions. Generating new tables...**");
+    /**
+     * Computer method
+     * <p>
+     * Constructor for Computer with a search budget and a number of threads for the hard difficulty
+     *
+     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard, 2 for expert)
+     * @param timeBudget {@code long} - The milliseconds each hard move may take
+     * @param nodeBudget {@code long} - The positions each hard move may search (playouts for the expert computer)
+     * @param threads {@code int} - The number of threads each hard or expert move is searched with (at least 1)
+     */
+    public Agent(int diff, long timeBudget, long nodeBudget, int threads) {
+        this(diff, timeBudget, nodeBudget, threads, false, false);
+    }
 
-            transpositionsOptimals = new HashMap<Board, List<Integer>>();
-            transpositionsEvals = new HashMap<Board, Integer>();
-            transpositionsChildren = new HashMap<Board, List<List<Integer>>>();
-        }
+    /**
+     * Computer method
+     * <p>
+     * Constructor for Computer with a search budget, a number of threads and a way of using them for the hard difficulty
+     *
+     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard, 2 for expert)
+     * @param timeBudget {@code long} - The milliseconds each hard move may take
+     * @param nodeBudget {@code long} - The positions each hard move may search
+     * @param threads {@code int} - The number of threads each hard move is searched with (at least 1)
+     * @param splitting {@code boolean} - Whether the threads split the tree between them (YBWC) instead of each searching
+     *                  all of it and sharing the transposition table (Lazy SMP)
+     */
+    public Agent(int diff, long timeBudget, long nodeBudget, int threads, boolean splitting) {
+        this(diff, timeBudget, nodeBudget, threads, splitting, false);
     }
 
     /**
-     * serializeTranspositions method
+     * Computer method
      * <p>
-     * Gets stored transpositionEvals and transpositionChildren from disk
+     * Constructor for Computer, or for the search of one of its helper threads
      *
-     * @param path {@code String} - The path to the serialized data
+     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard, 2 for expert)
+     * @param timeBudget {@code long} - The milliseconds each hard move may take
+     * @param nodeBudget {@code long} - The positions each hard move may search
+     * @param threads {@code int} - The number of threads each hard move is searched with (at least 1)
+     * @param splitting {@code boolean} - Whether the threads split the tree between them
+     * @param helper {@code boolean} - Whether this is a helper thread's search
      */
-    public static void serializeTranspositions(String path) {
-        try {
-            // declare variables and open new streams
-            FileOutputStream fos = new FileOutputStream(path + "optimals.ser");
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
+    private Agent(int diff, long timeBudget, long nodeBudget, int threads, boolean splitting, boolean helper) {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1");
 
-            oos.writeObject(transpositionsOptimals); // write the optimal transpositions to disk
+        this.diff = diff;
+        this.timeBudget = timeBudget;
+        this.nodeBudget = nodeBudget;
+        this.threads = threads;
+        this.splitting = splitting && threads > 1;
+        this.helper = helper;
+        this.helpers = new Agent[this.splitting || diff != 1 ? 0 : threads - 1];
+
+        for (int i = 0; i < helpers.length; i++) helpers[i] = newSearcher();
+    }
 
-            // flush and close the streams
-            oos.flush();
-            fos.flush();
-            oos.close();
-            fos.close();
+    /**
+     * newSearcher method
+     * <p>
+     * Creates the one-thread search of a helper or split search thread, which shares the positions of the game
+     *
+     * @return {@code Agent} - The search
+     */
+    private Agent newSearcher() {
+        // declare variables
+        Agent searcher = new Agent(diff, timeBudget, nodeBudget, 1, false, true);
 
-            // open new streams
-            fos = new FileOutputStream(path + "evals.ser");
-            oos = new ObjectOutputStream(fos);
+        searcher.gameKeys = gameKeys;
 
-            oos.writeObject(transpositionsEvals); // write the evaluations to disk
+        return searcher;
+    }
 
-            // flush and close the streams
-            oos.flush();
-            fos.flush();
-            oos.close();
-            fos.close();
+    /**
+     * getNodeCount method
+     * <p>
+     * Getter for the number of positions the computer has searched (on every thread, read between moves)
+     *
+     * @return {@code int} - The number of search calls since the computer was created
+     */
+    int getNodeCount() {
+        // declare variables
+        int count = callCounter;
 
-            // declare variables and open new streams
-            fos = new FileOutputStream(path + "children.ser");
-            oos = new ObjectOutputStream(fos);
+        for (Agent helperSearch : helpers) count += helperSearch.callCounter;
+        for (Agent searcher : splitSearchers.values()) count += searcher.callCounter;
 
-            oos.writeObject(transpositionsChildren); // write the children to disk
+        return count;
+    }
 
-            // flush and close the streams
-            oos.flush();
-            fos.flush();
-            oos.close();
-            fos.close();
-        }
-        // catch exceptions
-        catch (IOException e) {
-            e.printStackTrace();
-        }
+    /**
+     * getPlayoutCount method
+     * <p>
+     * Getter for the number of playouts the expert computer has run
+     *
+     * @return {@code long} - The number of playouts since the computer was created
+     */
+    long getPlayoutCount() {
+        return playoutCount;
     }
 
     /**
-     * Computer method
+     * getLastDepth method
      * <p>
-     * Constructor for Computer
+     * Getter for the depth of the deepest completed search of the last hard move
      *
-     * @param diff {@code int} - The difficulty of the computer (0 for normal, 1 for hard)
+     * @return {@code int} - The depth (0 if the last move was not searched)
      */
-    public Agent(int diff) {
-        this.diff = diff;
+    int getLastDepth() {
+        return lastDepth;
     }
 
     /**
      * encodeAction method
      * <p>
-     * Encodes an action into an array (pawn moves)
+     * Encodes an action into a packed int (pawn moves)
      *
      * @param pos {@code int[]} - The position of the move
      */
-    private static int[] encodeAction(int[] pos) {
-        return new int[]{0, pos[0], pos[1], 0};
+    private static int encodeAction(int[] pos) {
+        return Board.encodeMove(pos[0], pos[1]);
     }
 
     /**
      * encodeAction method
      * <p>
-     * Encodes an action into an array (wall placement)
+     * Encodes an action into a packed int (wall placement)
      *
      * @param wall {@code state.component.Wall} - The wall to encode
      */
-    private static int[] encodeAction(Wall wall) {
-        return new int[]{1, wall.getX(), wall.getY(), wall.isVertical() ? 1 : 0};
+    private static int encodeAction(Wall wall) {
+        return Board.encodeWall(wall.getX(), wall.getY(), wall.isVertical());
+    }
+
+    /**
+     * encodeSquare method
+     * <p>
+     * Encodes a pawn move to a square index (x + y * size) into a packed int
+     *
+     * @param board {@code state.Board} - The board the square is on
+     * @param square {@code int} - The square to move to
+     */
+    private static int encodeSquare(Board board, int square) {
+        return Board.encodeMove(square % board.getSize(), square / board.getSize());
+    }
+
+    /**
+     * decodeAction method
+     * <p>
+     * Decodes a packed action into an array ({type (0 for move, 1 for wall), x, y, vertical (1 or 0)})
+     *
+     * @param action {@code int} - The packed action
+     * @return {@code int[]} - The decoded action
+     */
+    private static int[] decodeAction(int action) {
+        return new int[]{
+                Board.isWallAction(action) ? 1 : 0,
+                Board.getActionX(action),
+                Board.getActionY(action),
+                Board.isVerticalAction(action) ? 1 : 0
+        };
     }
 
     /**
@@ -186,9 +283,11 @@ public class Agent {
      */
     public int[] getAction(Board board) {
         if (diff == 0) {
-            return getActionNormal(board);
+            return decodeAction(getActionNormal(board));
+        } else if (diff == 2) {
+            return decodeAction(getActionExpert(board));
         } else {
-            return getActionHard(board);
+            return decodeAction(getActionHard(board));
         }
     }
 
@@ -206,7 +305,7 @@ public class Agent {
         int threshold;
 
         // calculate the threshold
-        if (wallsReamaining == 10) threshold = 0;
+        if (wallsReamaining == board.getMaxWalls()) threshold = 0;
         else if (wallsReamaining >= 7) threshold = 1;
         else if (wallsReamaining >= 3) threshold = 2;
         else threshold = 3;
@@ -220,16 +319,17 @@ public class Agent {
      * Returns the move that the computer will make (normal difficulty - depth 1)
      *
      * @param board {@code state.Board} - The current state of the board
-     * @return {@code int[]} - The move that the computer will make
+     * @return {@code int} - The packed move that the computer will make
      */
-    private int[] getActionNormal(Board board) {
+    private int getActionNormal(Board board) {
         Pawn self = board.getCurrentPawn();
 
         // hidden constant: adjusted based on the number of walls already on the board
         final int WALL_DIFF_THRESHOLD = calcWallDiffThreshold(board);
 
         // declare variables
-        Set<List<Integer>> validPawnMoves = board.calcValidPawnMoves(self);
+        int[] validPawnMoves = new int[Board.getMaxPawnMoves()];
+        int pawnMoveCount = board.calcPawnMoves(self, validPawnMoves);
         Set<Wall> validWallMoves = board.calcValidWallPlacements(self);
         int selfCurrDist = board.calcDistanceToGoal(self);
         int enemyCurrDist = board.calcDistanceToGoal(board.getEnemy(self));
@@ -237,23 +337,25 @@ public class Agent {
         Wall maxWall = new Wall(0, new int[]{0, 0}, false);
         int maxPawnDifference = -1;
         int[] maxPawnMove = new int[2];
-        int[] old = self.getPos();
-        int[] instruction = new int[4];
+        int action;
+        int instruction = 0;
         boolean winning = false;
 
         // calculate the minimum distance with every pawn move
-        for (List<Integer> move : validPawnMoves) {
-            self.move(new int[]{move.get(0), move.get(1)});
+        for (int i = 0; i < pawnMoveCount; i++) {
+            action = encodeSquare(board, validPawnMoves[i]);
+            board.doAction(action);
             if (selfCurrDist - board.calcDistanceToGoal(self) > maxPawnDifference) {
                 maxPawnDifference = selfCurrDist - board.calcDistanceToGoal(self);
-                maxPawnMove = new int[]{move.get(0), move.get(1)};
+                maxPawnMove = new int[]{Board.getActionX(action), Board.getActionY(action)};
             }
-            self.move(old);
+            board.undoAction(action);
         }
 
         // calculate the minimum distance with every wall placement
         for (Wall wall : validWallMoves) {
-            board.placeWallTemp(board.getPawn(wall.getOwner()), wall.getPos(), wall.isVertical());
+            action = encodeAction(wall);
+            board.doAction(action);
 
             // check if the current wall placement is better than the previous best
             if (board.calcDistanceToGoal(board.getEnemy(self)) - enemyCurrDist > maxWallDifference) {
@@ -261,13 +363,13 @@ public class Agent {
                 maxWall = new Wall(wall.getOwner(), wall.getPos(), wall.isVertical());
             }
 
-            board.removeWallTemp(wall);
+            board.undoAction(action);
         }
 
         // prioritize moves which win immediately
-        for (List<Integer> move : validPawnMoves) {
-            if (move.get(1) == self.getYGoal()) {
-                instruction = encodeAction(new int[]{move.get(0), move.get(1)});
+        for (int i = 0; i < pawnMoveCount; i++) {
+            if (validPawnMoves[i] / board.getSize() == self.getYGoal()) {
+                instruction = encodeSquare(board, validPawnMoves[i]);
                 winning = true;
             }
         }
@@ -285,382 +387,978 @@ public class Agent {
     }
 
     /**
-     * calcSearchDepth
+     * getActionHard method
      * <p>
-     * Calculates the search depth for the minimax algorithm based on two (arbitrary) factors:
-     * 1. The number of walls remaining
-     * 2. The distance of both pawnsto the goal
+     * Returns the move that the computer will make (hard)
+     * Implements a principal variation search with iterative deepening (see deepen).
+     * With more than one thread, helper threads search copies of the board at the same time (Lazy SMP):
+     * they share nothing but the transposition table, so the results they store let the main search skip work.
+     * The move found by the main thread is always the one played.
+     * A splitting computer instead divides each iteration's tree between its threads (see searchParallel).
+     * The positions of the game are remembered (see recordPosition), so the search scores going back to one as a draw
+     * instead of shuffling between the same positions forever.
      *
      * @param board {@code state.Board} - The current state of the board
-     * @return {@code int} - The search depth
+     * @return {@code int} - The packed move that the computer will make
      */
-    private int calcSearchDepth(Board board) {
+    private int getActionHard(Board board) {
         // declare variables
-        int wallsRemaining = board.getWallsRemaining(board.getCurrentPawn());
-        wallsRemaining += board.getWallsRemaining(board.getEnemy(board.getCurrentPawn()));
-        int searchDepth;
+        Pawn self = board.getCurrentPawn();
+        int action = NO_ACTION;
+        int completedDepth;
+        Future<?>[] running;
+
+        lastDepth = 0;
+        recordPosition(board);
+
+        // check if there are any walls left
+        if (board.getWallsRemaining(self) == 0) {
+            action = beeline(board);
+        }
+
+        // otherwise search the position (earlier results come from the transposition table)
+        else {
+            transpositions.newSearch();
+
+            running = startHelpers(board);
+            completedDepth = deepen(board, MIN_SEARCH_DEPTH);
+            stopHelpers(running);
+
+            action = pvAction;
+            lastDepth = completedDepth;
+
+            System.out.printf(" (depth=%d)", completedDepth);
+
+            // if the search cannot make a move, revert to the normal computer
+            if (action == NO_ACTION) {
+                System.out.print("Error in search algorithm. Reverting to normal computer...");
+                action = getActionNormal(board);
+            }
 
-        // calculate the search depth
-        if (wallsRemaining == 1 ||
-                board.calcDistanceToGoal(board.getCurrentPawn()) <= 2 &&
-                        board.calcDistanceToGoal(board.getEnemy(board.getCurrentPawn())) <= 2)
-            searchDepth = 5;
-        else if (board.calcDistanceToGoal(board.getCurrentPawn()) <= 4 &&
-                board.calcDistanceToGoal(board.getEnemy(board.getCurrentPawn())) <= 4)
-            searchDepth = 4;
-        else
-            searchDepth = 3;
+            board.doAction(action);
+            recordPosition(board);
+            board.undoAction(action);
+        }
 
-        return searchDepth;
+        return action;
     }
 
     /**
-     * getActionHard method
+     * recordPosition method
      * <p>
-     * Returns the move that the computer will make (hard)
-     * Implements the minimax algorithm (variable search depth of 3-5, with a-b pruning)
+     * Adds a position of the game to gameKeys. A wall can never be taken back, so once the number of walls changes
+     * none of the earlier positions can come back, and they are forgotten (as are those of an earlier game).
+     *
+     * @param board {@code state.Board} - The position
+     */
+    private void recordPosition(Board board) {
+        // declare variables
+        int wallCount = board.getWallsRemaining(board.getP1()) + board.getWallsRemaining(board.getP2());
+
+        if (wallCount != gameWallCount) {
+            gameKeys.clear();
+            gameWallCount = wallCount;
+        }
+
+        gameKeys.add(board.getKey());
+    }
+
+    /**
+     * getActionExpert method
+     * <p>
+     * Returns the move that the computer will make (expert)
+     * Implements a Monte Carlo tree search (see MonteCarloTree) on every thread until the time or playout budget runs out,
+     * and plays the move which was played out the most. The part of the tree below the position is kept from the last turn.
      *
      * @param board {@code state.Board} - The current state of the board
-     * @return {@code int[]} - The move that the computer will make
+     * @return {@code int} - The packed move that the computer will make
      */
-    private int[] getActionHard(Board board) {
+    private int getActionExpert(Board board) {
         // declare variables
         Pawn self = board.getCurrentPawn();
-        final int SEARCH_DEPTH = calcSearchDepth(board);
-        searchDepth = SEARCH_DEPTH;
-        int[] algoEval;
-        int[] action;
-        List<Integer> actionList;
+        int action;
+        long start;
+        long playouts;
+        double seconds;
 
         // check if there are any walls left
         if (board.getWallsRemaining(self) == 0) {
             action = beeline(board);
         }
 
-        // check if this position has already been calculated
-        else if (transpositionsOptimals.get(board) != null) {
-            actionList = transpositionsOptimals.get(board);
-            // convert the list to an array
-            action = new int[]{actionList.get(0), actionList.get(1), actionList.get(2), actionList.get(3)};
+        // otherwise search the position, keeping what is known about it from the last turn
+        else {
+            if (tree == null) tree = new MonteCarloTree(board);
+            else tree.reuse(board);
+            if (threads > 1) startHelperPool(threads - 1);
+
+            start = System.nanoTime();
+            playouts = tree.search(board, timeBudget, nodeBudget, helperPool, threads);
+            seconds = (System.nanoTime() - start) / 1e9;
+
+            playoutCount += playouts;
+            action = tree.getBestMove();
+
+            System.out.printf(" (playouts=%d, %.0f/s)", playouts, playouts / seconds);
+
+            // if the search cannot make a move, revert to the normal computer
+            if (action == NO_ACTION) {
+                System.out.print("Error in search algorithm. Reverting to normal computer...");
+                action = getActionNormal(board);
+            }
         }
 
-        // if the position has not been calculated, calculate it
-        else {
-            // check if the search depth is valid
-            if (searchDepth > 0) {
-                // evaluate the move using the minimax algorithm
-                System.out.printf(" This may take a while (depth=%d)...", SEARCH_DEPTH);
-                algoEval = minimax(
-                        self.getId(),
-                        board,
-                        SEARCH_DEPTH - 1,
-                        Integer.MIN_VALUE,
-                        Integer.MAX_VALUE,
-                        new HashSet<Board>(),
-                        null
-                );
-
-                // decode the action
-                action = new int[]{algoEval[1], algoEval[2], algoEval[3], algoEval[4]};
-
-                // if the minimax algorithm cannot make a move, revert to the normal computer
-                if (Arrays.equals(action, new int[]{0, 0, 0, 0})) {
-                    System.out.print("Error in minimax algorithm. Reverting to normal computer...");
-                    action = getActionNormal(board);
+        return action;
+    }
+
+    /**
+     * deepen method
+     * <p>
+     * Searches a position with iterative deepening: the search goes one move deeper at a time until the time or node
+     * budget runs out, and the best move of the deepest completed search is kept in pvAction.
+     * Each search tries the best move of the one before it first.
+     * A helper's search does not stop at half the budget, only when it is told to (or its own budget runs out).
+     *
+     * @param board {@code state.Board} - The current state of the board
+     * @param firstDepth {@code int} - The depth of the first iteration
+     * @return {@code int} - The depth of the deepest completed search (0 if none completed)
+     */
+    private int deepen(Board board, int firstDepth) {
+        // declare variables
+        int evaluation = 0;
+        int completedDepth = 0;
+
+        searchStart = System.nanoTime();
+        searchNodes = 0;
+        searchAborted = false;
+        pvAction = NO_ACTION;
+        ageOrdering();
+
+        // deepen until the budget runs out, the result is decided, or a deeper search would not finish in time
+        for (searchDepth = firstDepth; searchDepth <= MAX_SEARCH_DEPTH && !searchAborted &&
+                Math.abs(evaluation) < MIN_WIN_SCORE; searchDepth++) {
+            // each search is at least as long as all the ones before it, so do not start one past half the budget
+            if (!helper && pvAction != NO_ACTION && isPastHalfBudget()) searchAborted = true;
+
+            else {
+                ensureMoveBuffers(searchDepth, board);
+
+                if (splitting) evaluation = searchParallel(board, searchDepth - 1);
+                else evaluation = search(board, searchDepth - 1, -WIN_SCORE, WIN_SCORE, new HashSet<Long>(), 0);
+
+                // an unfinished search may not have seen the best move, so only completed searches count
+                if (!searchAborted && pvLength[0] > 0) {
+                    pvAction = pvTable[0][0];
+                    completedDepth = searchDepth;
+                }
+            }
+        }
+
+        return completedDepth;
+    }
+
+    /**
+     * startHelpers method
+     * <p>
+     * Starts every helper's search on its own copy of the board (half of them start one move deeper,
+     * so the threads are not all searching the same depth at the same time)
+     *
+     * @param board {@code state.Board} - The current state of the board
+     * @return {@code Future<?>[]} - The running helper searches
+     */
+    private Future<?>[] startHelpers(Board board) {
+        // declare variables
+        Future<?>[] running = new Future<?>[helpers.length];
+        Agent helperSearch;
+        Board copy;
+        int firstDepth;
+
+        if (helpers.length > 0) startHelperPool(helpers.length);
+
+        for (int i = 0; i < helpers.length; i++) {
+            helperSearch = helpers[i];
+            copy = board.copy();
+            firstDepth = MIN_SEARCH_DEPTH + (i + 1) % 2;
+
+            helperSearch.stopRequested = false;
+            running[i] = submitSearch(helperSearch, copy, firstDepth);
+        }
+
+        return running;
+    }
+
+    /**
+     * startHelperPool method
+     * <p>
+     * Starts the helper threads the first time they are needed (as daemons, so they do not keep the program running)
+     *
+     * @param count {@code int} - The number of helper threads
+     */
+    private void startHelperPool(int count) {
+        if (helperPool == null) {
+            helperPool = Executors.newFixedThreadPool(count, task -> {
+                Thread thread = new Thread(task, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * close method
+     * <p>
+     * Stops the helper and split search threads, which are otherwise kept waiting for the computer's next move.
+     * The computer can still be used afterwards: the threads are started again by the next search which needs them.
+     */
+    public void close() {
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+
+        if (splitPool != null) {
+            splitPool.shutdown();
+            splitPool = null;
+
+            // the split searches belong to the stopped threads, so only their counts are kept
+            for (Agent searcher : splitSearchers.values()) callCounter += searcher.callCounter;
+            splitSearchers.clear();
+        }
+    }
+
+    /**
+     * submitSearch method
+     * <p>
+     * Runs a helper's search on one of the helper threads
+     *
+     * @param helperSearch {@code Agent} - The helper
+     * @param copy {@code state.Board} - The helper's copy of the board
+     * @param firstDepth {@code int} - The depth of the helper's first iteration
+     * @return {@code Future<?>} - The running search
+     */
+    private Future<?> submitSearch(Agent helperSearch, Board copy, int firstDepth) {
+        return helperPool.submit(() -> helperSearch.deepen(copy, firstDepth));
+    }
+
+    /**
+     * stopHelpers method
+     * <p>
+     * Tells every helper's search to stop, and waits until they have
+     *
+     * @param running {@code Future<?>[]} - The running helper searches
+     */
+    private void stopHelpers(Future<?>[] running) {
+        for (Agent helperSearch : helpers) helperSearch.stopRequested = true;
+
+        for (Future<?> search : running) {
+            try {
+                search.get();
+            }
+            // catch exceptions
+            catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * searchParallel method
+     * <p>
+     * Searches the root of an iteration with every thread of the split search (Young Brothers Wait Concept).
+     * The calling thread only waits, cancelling the search once the budget runs out (the first iteration always completes).
+     * The best root move is put in pvTable[0][0] like a one-thread search does.
+     *
+     * @param board {@code state.Board} - The current state of the board (not used by this thread until the search is done)
+     * @param depth {@code int} - The depth of the search
+     * @return {@code int} - The score of the position for the player to move
+     */
+    private int searchParallel(Board board, int depth) {
+        // declare variables
+        SplitPoint root = new SplitPoint(null, -WIN_SCORE, WIN_SCORE);
+        ForkJoinTask<Integer> task;
+        int evaluation = 0;
+        boolean waiting = true;
+
+        // start the threads the first time they are needed (fork/join threads are daemons)
+        if (splitPool == null) splitPool = new ForkJoinPool(threads);
+
+        splitRootMove = NO_ACTION;
+        task = splitPool.submit(() -> searchSplit(board, depth, -WIN_SCORE, WIN_SCORE, new HashSet<Long>(), 0, root));
+
+        while (waiting) {
+            try {
+                evaluation = task.get(BUDGET_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                waiting = false;
+            }
+            // check the budget while the search is running
+            catch (TimeoutException e) {
+                searchNodes = root.countNodes();
+                if (pvAction != NO_ACTION && isOverBudget()) root.cancel();
+            }
+            // stop the search, but keep waiting until its threads are done with the board
+            catch (InterruptedException e) {
+                root.cancel();
+            }
+            // catch exceptions
+            catch (ExecutionException e) {
+                e.printStackTrace();
+                root.cancel();
+                waiting = false;
+            }
+        }
+
+        searchAborted = root.isCancelled();
+        pvTable[0][0] = splitRootMove;
+        pvLength[0] = splitRootMove == NO_ACTION ? 0 : 1;
+
+        return evaluation;
+    }
+
+    /**
+     * searchSplit method
+     * <p>
+     * Implements the split search of a position on one of the split search threads.
+     * Positions near the leaves are searched by the thread's one-thread search. Otherwise the moves are searched one at a
+     * time until one has actually been searched (the eldest brother), which sets up the window. The rest (the young brothers)
+     * are then searched at the same time as fork/join tasks, each on its own copy of the board, with a null window which is
+     * widened if they turn out to be better. A cutoff cancels the position's split point, which stops the other moves.
+     *
+     * @param position {@code state.Board} - The current state of the board (owned by this thread)
+     * @param depth {@code int} - The depth of the search
+     * @param alpha {@code int} - The score the player to move is already sure of
+     * @param beta {@code int} - The score the opponent is already sure of (higher scores are cut off)
+     * @param visited {@code Set<Long>} - The keys of the positions on the line being searched
+     * @param ply {@code int} - The number of moves made since the root of the search
+     * @param parent {@code SplitPoint} - The split point the position is under
+     * @return {@code int} - The score of the position for the player to move (meaningless if the parent is cancelled)
+     */
+    private int searchSplit(Board position, int depth, int alpha, int beta, Set<Long> visited, int ply, SplitPoint parent) {
+        // declare variables
+        Agent searcher = splitSearchers.computeIfAbsent(Thread.currentThread(), thread -> newSearcher());
+        List<ForkJoinTask<?>> brothers = new ArrayList<ForkJoinTask<?>>();
+        SplitPoint node;
+        int[] children;
+        int evaluation = 0;
+        int tableMove = NO_ACTION;
+        int childCount;
+        int bestMove;
+        int next = 0;
+        long entry;
+        boolean searchedEldest = false;
+
+        // positions near the leaves are not worth splitting
+        if (ply > 0 && depth < MIN_SPLIT_DEPTH) {
+            evaluation = searcher.searchSerial(position, depth, alpha, beta, visited, ply, parent);
+        }
+
+        else if (!parent.isCancelled()) {
+            // look up the position in the transposition table (the best move of the last iteration goes first at the root)
+            entry = transpositions.probe(position.getKey());
+            if (entry != 0) tableMove = TranspositionTable.getMove(entry);
+            if (ply == 0 && pvAction != NO_ACTION) tableMove = pvAction;
+
+            // use a stored result which is deep enough and decides the position inside the window
+            if (entry != 0 && ply > 0 && TranspositionTable.getDepth(entry) >= depth && isTableCutoff(entry, ply, alpha, beta)) {
+                evaluation = fromTableScore(TranspositionTable.getScore(entry), ply);
+            }
+
+            else {
+                // copy the moves, since this thread may run other searches which use its buffers while it waits
+                searcher.ensureMoveBuffers(ply + 1, position);
+                childCount = searcher.generateChildren(position, ply, tableMove);
+                children = Arrays.copyOf(searcher.moveBuffers[ply], childCount);
+                node = new SplitPoint(parent, alpha, beta);
+
+                // search the eldest brother on this thread
+                while (next < childCount && !searchedEldest && !node.isCancelled()) {
+                    searchedEldest = searchChild(position, children[next++], depth, beta, visited, ply, node, true);
+                }
+
+                // then search the young brothers at the same time
+                for (int i = next; i < childCount && !node.isCancelled(); i++) {
+                    brothers.add(forkBrother(position, children[i], depth, beta, visited, ply, node));
+                }
+
+                ForkJoinTask.invokeAll(brothers);
+
+                // the result only counts if nothing above has been cancelled
+                bestMove = node.getBestMove();
+
+                if (!parent.isCancelled()) {
+                    // a player with no moves at all is scored as the position stands, and one whose moves all repeat as 0
+                    if (bestMove != NO_ACTION) evaluation = node.getBestScore();
+                    else if (childCount == 0) evaluation = eval(position);
+
+                    // store the result and remember a move which caused a cutoff
+                    if (bestMove != NO_ACTION) {
+                        if (evaluation >= beta) {
+                            transpositions.store(position.getKey(), bestMove, toTableScore(evaluation, ply), depth, TranspositionTable.LOWER);
+                            searcher.recordCutoff(bestMove, depth, ply);
+                        }
+                        else if (evaluation <= alpha) transpositions.store(position.getKey(), bestMove, toTableScore(evaluation, ply), depth, TranspositionTable.UPPER);
+                        else transpositions.store(position.getKey(), bestMove, toTableScore(evaluation, ply), depth, TranspositionTable.EXACT);
+                    }
+
+                    if (ply == 0) splitRootMove = bestMove;
                 }
             }
+        }
+
+        return evaluation;
+    }
+
+    /**
+     * searchChild method
+     * <p>
+     * Searches one move of a split position and reports its score to the split point
+     *
+     * @param position {@code state.Board} - The position the move is made from (owned by this thread)
+     * @param child {@code int} - The packed move
+     * @param depth {@code int} - The depth of the position
+     * @param beta {@code int} - The beta value of the position's window
+     * @param visited {@code Set<Long>} - The keys of the positions on the line being searched (owned by this thread)
+     * @param ply {@code int} - The ply of the position
+     * @param node {@code SplitPoint} - The split point of the position
+     * @param eldest {@code boolean} - Whether this is the eldest brother (searched with the full window)
+     * @return {@code boolean} - Whether the move was searched (it is not searched if it wins or repeats the game or the line)
+     */
+    private boolean searchChild(Board position, int child, int depth, int beta, Set<Long> visited, int ply, SplitPoint node,
+                                boolean eldest) {
+        // declare variables
+        Pawn mover = position.getCurrentPawn();
+        boolean searched = false;
+        int alpha;
+        int score;
+
+        position.doAction(child);
+
+        // check if the player to move wins immediately on this turn
+        if (mover.getY() == mover.getYGoal()) {
+            node.report(child, WIN_SCORE - ply);
+        }
+
+        // a move back into a position of the game is a draw
+        else if (gameKeys.contains(position.getKey())) {
+            node.report(child, DRAW_SCORE);
+        }
+
+        // otherwise search the move unless it repeats the line (the window is as narrow as the best move so far allows)
+        else if (!visited.contains(position.getKey())) {
+            visited.add(position.getKey());
+            alpha = node.getAlpha();
 
-            // if it is not valid, revert to the normal computer
+            if (eldest) {
+                score = -searchSplit(position, depth - 1, -beta, -alpha, visited, ply + 1, node);
+            }
             else {
-                System.out.print("Error in minimax algorithm. Reverting to normal computer...");
-                action = getActionNormal(board);
+                score = -searchSplit(position, depth - 1, -alpha - 1, -alpha, visited, ply + 1, node);
+
+                if (score > alpha && score < beta && !node.isCancelled()) {
+                    score = -searchSplit(position, depth - 1, -beta, -alpha, visited, ply + 1, node);
+                }
             }
 
-            // put the optimal move in the transposition map
-            transpositionsOptimals.put(
-                    board.copy(),
-                    Arrays.asList(action[0], action[1], action[2], action[3])
-            );
+            visited.remove(position.getKey());
+            searched = true;
+
+            if (!node.isCancelled()) node.report(child, score);
         }
 
-        return action;
+        position.undoAction(child);
+
+        return searched;
+    }
+
+    /**
+     * forkBrother method
+     * <p>
+     * Makes a task which searches a young brother on a copy of the board, unless its split point is cancelled first.
+     * The copy is made when the task starts, while the position's own thread waits for every task to finish.
+     *
+     * @param position {@code state.Board} - The position the move is made from
+     * @param child {@code int} - The packed move
+     * @param depth {@code int} - The depth of the position
+     * @param beta {@code int} - The beta value of the position's window
+     * @param visited {@code Set<Long>} - The keys of the positions on the line being searched
+     * @param ply {@code int} - The ply of the position
+     * @param node {@code SplitPoint} - The split point of the position
+     * @return {@code ForkJoinTask<?>} - The task
+     */
+    private ForkJoinTask<?> forkBrother(Board position, int child, int depth, int beta, Set<Long> visited, int ply,
+                                        SplitPoint node) {
+        return ForkJoinTask.adapt(() -> {
+            // declare variables
+            Board copy;
+            Set<Long> path;
+
+            if (!node.isCancelled()) {
+                synchronized (position) {
+                    copy = position.copy();
+                    path = new HashSet<Long>(visited);
+                }
+
+                searchChild(copy, child, depth, beta, path, ply, node, false);
+            }
+        });
+    }
+
+    /**
+     * searchSerial method
+     * <p>
+     * Searches a position of the split search on one thread, stopping if its split point is cancelled
+     *
+     * @param position {@code state.Board} - The current state of the board
+     * @param depth {@code int} - The depth of the search
+     * @param alpha {@code int} - The score the player to move is already sure of
+     * @param beta {@code int} - The score the opponent is already sure of
+     * @param visited {@code Set<Long>} - The keys of the positions on the line being searched
+     * @param ply {@code int} - The number of moves made since the root of the search
+     * @param parent {@code SplitPoint} - The split point the position is under
+     * @return {@code int} - The score of the position for the player to move (meaningless if the split point is cancelled)
+     */
+    private int searchSerial(Board position, int depth, int alpha, int beta, Set<Long> visited, int ply, SplitPoint parent) {
+        splitPoint = parent;
+        searchAborted = false;
+        ensureMoveBuffers(ply + depth, position);
+
+        return search(position, depth, alpha, beta, visited, ply);
+    }
+
+    /**
+     * isStopping method
+     * <p>
+     * Checks if the search has to stop (the positions searched are also counted for a split search)
+     *
+     * @return {@code boolean} - Whether the search has to stop
+     */
+    private boolean isStopping() {
+        if (splitPoint != null) splitPoint.addNodes(BUDGET_CHECK_INTERVAL);
+
+        return stopRequested || splitPoint != null && splitPoint.isCancelled() || pvAction != NO_ACTION && isOverBudget();
+    }
+
+    /**
+     * isOverBudget method
+     * <p>
+     * Checks if the current move has used up its time or node budget
+     *
+     * @return {@code boolean} - Whether the search has to stop
+     */
+    private boolean isOverBudget() {
+        return searchNodes >= nodeBudget || System.nanoTime() - searchStart >= timeBudget * 1_000_000;
+    }
+
+    /**
+     * isPastHalfBudget method
+     * <p>
+     * Checks if the current move has used up half of its time or node budget
+     *
+     * @return {@code boolean} - Whether a new iteration is unlikely to finish
+     */
+    private boolean isPastHalfBudget() {
+        return searchNodes >= nodeBudget / 2 || System.nanoTime() - searchStart >= timeBudget * 500_000;
     }
 
     /**
-     * minimax method
+     * search method
      * <p>
-     * Implements the minimax algorithm (with a-b pruning)
+     * Implements a negamax principal variation search (alpha-beta where every score is for the player to move).
+     * The first move of each position is searched with the full window, and the rest with a null window around alpha,
+     * which only proves they are no better. A move which turns out to be better is searched again with the full window.
+     * The line of best moves from each ply is kept in pvTable, so the best move at the root is pvTable[0][0].
+     * Moves back into a position already on the line are skipped (the null window search of a move leaves nothing behind
+     * which would stop it being searched again).
+     * Once an iteration has completed, the search stops (and returns a meaningless score) as soon as the budget runs out.
+     * Results are stored in the transposition table, and a stored result searched at least as deep is used instead of
+     * searching again if it is exact or its bound is outside the window. The stored best move is always searched first.
      *
-     * @param maximizingPlayer {@code int} - The player to maximize (1 or 2)
      * @param position {@code state.Board} - The current state of the board
      * @param depth {@code int} - The depth of the search
-     * @param alpha {@code int} - The alpha value for a-b pruning
-     * @param beta {@code int} - The beta value for a-b pruning
-     * @param visited {@code boolean} - The set of visited positions
-     * @return {@code int[]} - The "best" move for the maximizing player along with its evaluation
+     * @param alpha {@code int} - The score the player to move is already sure of
+     * @param beta {@code int} - The score the opponent is already sure of (higher scores are cut off)
+     * @param visited {@code Set<Long>} - The keys of the positions on the line being searched
+     * @param ply {@code int} - The number of moves made since the root of the search
+     * @return {@code int} - The score of the position for the player to move
      */
-    private int[] minimax(int maximizingPlayer, Board position, int depth, int alpha, int beta, Set<Board> visited, int[] action) {
+    private int search(Board position, int depth, int alpha, int beta, Set<Long> visited, int ply) {
         // declare variables
         final int DOT_INTERVAL = (int) (50 * (Math.pow(2, searchDepth - 2)));
-        int[] evalActionPair = new int[5];
-        int[] evalActionPairChild;
-        int maxEval = Integer.MIN_VALUE;
-        int minEval = Integer.MAX_VALUE;
-        boolean alphaBetaPruned = false;
+        int evaluation = 0;
+        int bestEval = Integer.MIN_VALUE;
+        int evalChild;
+        int childCount;
+        int child;
+        int alphaOrig = alpha;
+        int bestMove = NO_ACTION;
+        int tableMove = NO_ACTION;
+        long entry = 0;
+        boolean searchedFirst = false;
+        Pawn mover;
 
         // output a dot to indicate progress
-        if (++callCounter % DOT_INTERVAL == 0) System.out.print(".");
+        if (++callCounter % DOT_INTERVAL == 0 && !helper) System.out.print(".");
+
+        // stop the search if the budget has run out (the first iteration always completes so there is a move to play),
+        // or if this is a helper which has been told to stop, or a split search which has been cancelled
+        if (++searchNodes % BUDGET_CHECK_INTERVAL == 0 && isStopping()) searchAborted = true;
+
+        // the principal variation from this ply starts out empty
+        pvLength[ply] = ply;
+
+        // look up the position in the transposition table
+        if (!searchAborted) entry = transpositions.probe(position.getKey());
+        if (entry != 0) tableMove = TranspositionTable.getMove(entry);
+
+        // an aborted search unwinds without looking at any more positions
+        if (searchAborted) {
+            evaluation = 0;
+        }
+
+        // use a stored result which is deep enough and decides the position inside the window (the root has to find a move)
+        else if (entry != 0 && ply > 0 && TranspositionTable.getDepth(entry) >= depth && isTableCutoff(entry, ply, alpha, beta)) {
+            evaluation = fromTableScore(TranspositionTable.getScore(entry), ply);
+        }
 
         // if the depth is 0, return the evaluation of the current position
-        if (depth == 0) {
-            evalActionPair = new int[]{eval(maximizingPlayer, position), action[0], action[1], action[2], action[3]};
+        else if (depth == 0) {
+            evaluation = eval(position);
         }
 
-        // if the current player is the maximizing player, find the move with the maximum evaluation using recursion
-        else if (position.getCurrentPlayer() == maximizingPlayer) {
-            // loop over each possible move from the current position
-            for (List<Integer> child : getChildren(position)) {
-                // check if this branch has passed alpha and beta pruning
-                if (!alphaBetaPruned) {
-                    int[] actionChild = new int[]{child.get(0), child.get(1), child.get(2), child.get(3)};
+        // otherwise find the move with the best score using recursion
+        else {
+            childCount = generateChildren(position, ply, tableMove);
 
-                    // execute the action
-                    position.doAction(actionChild);
+            // loop over each possible move until one is good enough to cut the search off
+            for (int i = 0; i < childCount && alpha < beta && !searchAborted; i++) {
+                child = moveBuffers[ply][i];
+                mover = position.getCurrentPawn();
 
-                    // check if the maximizing player wins immediately on this turn
-                    if (position.getPawn(maximizingPlayer).getY() ==
-                            position.getPawn(maximizingPlayer).getYGoal()) {
-                        visited.add(position);
+                // execute the action
+                position.doAction(child);
 
-                        maxEval = Integer.MAX_VALUE;
-                        evalActionPair = new int[]{Integer.MAX_VALUE, actionChild[0], actionChild[1], actionChild[2], actionChild[3]};
-                    }
+                // check if the player to move wins immediately on this turn
+                if (mover.getY() == mover.getYGoal()) {
+                    evalChild = WIN_SCORE - ply;
+                    pvLength[ply + 1] = ply + 1;
+                }
 
-                    // if the position has not been visited
-                    else if (!visited.contains(position)) {
-                        visited.add(position);
-
-                        evalActionPairChild = minimax(
-                                maximizingPlayer,
-                                position,
-                                depth - 1,
-                                alpha,
-                                beta,
-                                visited,
-                                action == null ? actionChild : action
-                        );
-
-                        // if the evaluation of the move is greater than the maximum evaluation,
-                        // update the maximum evaluation
-                        if (evalActionPairChild[0] > maxEval) {
-                            maxEval = evalActionPairChild[0];
-                            evalActionPair = new int[]{
-                                    maxEval,
-                                    // if the action is null, use the child action
-                                    action == null ? actionChild[0] : action[0],
-                                    action == null ? actionChild[1] : action[1],
-                                    action == null ? actionChild[2] : action[2],
-                                    action == null ? actionChild[3] : action[3]
-                            };
-                        }
+                // a move back into a position of the game is a draw
+                else if (gameKeys.contains(position.getKey())) {
+                    evalChild = DRAW_SCORE;
+                    pvLength[ply + 1] = ply + 1;
+                }
 
-                        // apply alpha-beta pruning
-                        alpha = Math.max(alpha, evalActionPairChild[0]);
-                        if (beta <= alpha) {
-                            alphaBetaPruned = true;
-                        }
+                // skip the position if it is already on the line being searched
+                else if (visited.contains(position.getKey())) {
+                    evalChild = Integer.MIN_VALUE;
+                }
+
+                // the first move gets the full window
+                else if (!searchedFirst) {
+                    visited.add(position.getKey());
+                    evalChild = -search(position, depth - 1, -beta, -alpha, visited, ply + 1);
+                    visited.remove(position.getKey());
+                    searchedFirst = true;
+                }
+
+                // the other moves only have to be proven no better than alpha, unless they are
+                else {
+                    visited.add(position.getKey());
+                    evalChild = -search(position, depth - 1, -alpha - 1, -alpha, visited, ply + 1);
+
+                    if (evalChild > alpha && evalChild < beta && !searchAborted) {
+                        evalChild = -search(position, depth - 1, -beta, -alpha, visited, ply + 1);
                     }
 
-                    // revert the action
-                    position.undoAction(actionChild);
+                    visited.remove(position.getKey());
+                }
+
+                // keep the best move and the line which follows it
+                if (evalChild > bestEval) {
+                    bestEval = evalChild;
+                    bestMove = child;
+                    alpha = Math.max(alpha, evalChild);
+                    updatePv(ply, child);
                 }
+
+                // revert the action
+                position.undoAction(child);
+            }
+
+            // a player with no moves at all (walled in) is scored as the position stands, otherwise a position whose moves
+            // all repeat the line is worth 0
+            if (bestMove != NO_ACTION) evaluation = bestEval;
+            else if (childCount == 0) evaluation = eval(position);
+
+            // remember the move which caused a cutoff, so it is tried early in other positions
+            if (!searchAborted && bestMove != NO_ACTION && bestEval >= beta) recordCutoff(bestMove, depth, ply);
+
+            // store the result, with the bound it has if the window cut the search short
+            if (!searchAborted && bestMove != NO_ACTION) {
+                if (bestEval >= beta) transpositions.store(position.getKey(), bestMove, toTableScore(bestEval, ply), depth, TranspositionTable.LOWER);
+                else if (bestEval <= alphaOrig) transpositions.store(position.getKey(), bestMove, toTableScore(bestEval, ply), depth, TranspositionTable.UPPER);
+                else transpositions.store(position.getKey(), bestMove, toTableScore(bestEval, ply), depth, TranspositionTable.EXACT);
             }
         }
 
-        // if the current player is the minimizing player, find the move with the minimum evaluation using recursion
-        else {
-            // loop over each possible move from the current position
-            for (List<Integer> child : getChildren(position)) {
-                // check if this branch has passed alpha and beta pruning
-                if (!alphaBetaPruned) {
-                    int[] actionChild = new int[]{child.get(0), child.get(1), child.get(2), child.get(3)};
-
-                    // execute the action
-                    position.doAction(actionChild);
-
-                    // check if the minimizing player wins immediately on this turn
-                    if (position.getEnemy(position.getPawn(maximizingPlayer)).getY() ==
-                            position.getEnemy(position.getPawn(maximizingPlayer)).getYGoal()) {
-                        visited.add(position);
-
-                        minEval = Integer.MIN_VALUE;
-                        evalActionPair = new int[]{Integer.MIN_VALUE, actionChild[0], actionChild[1], actionChild[2], actionChild[3]};
-                    }
+        return evaluation;
+    }
 
-                    // if the position has not been visited
-                    else if (!visited.contains(position)) {
-                        visited.add(position);
-
-                        // recursively call the minimax function with the temporary board
-                        evalActionPairChild = minimax(
-                                maximizingPlayer,
-                                position,
-                                depth - 1,
-                                alpha,
-                                beta,
-                                visited,
-                                action == null ? actionChild : action // if the action is null, use the child action
-                        );
-
-                        // if the evaluation of the move is less than the maximum evaluation,
-                        // update the maximum evaluation
-                        if (evalActionPairChild[0] < minEval) {
-                            minEval = evalActionPairChild[0];
-                            evalActionPair = new int[]{
-                                    minEval,
-                                    // if the action is null, use the child action
-                                    action == null ? actionChild[0] : action[0],
-                                    action == null ? actionChild[1] : action[1],
-                                    action == null ? actionChild[2] : action[2],
-                                    action == null ? actionChild[3] : action[3]
-                            };
-                        }
+    /**
+     * isTableCutoff method
+     * <p>
+     * Checks if a stored result settles the score of a position for a search window
+     *
+     * @param entry {@code long} - The packed result from the transposition table
+     * @param ply {@code int} - The ply of the position
+     * @param alpha {@code int} - The alpha value of the window
+     * @param beta {@code int} - The beta value of the window
+     * @return {@code boolean} - Whether the stored score can be returned without searching
+     */
+    private static boolean isTableCutoff(long entry, int ply, int alpha, int beta) {
+        // declare variables
+        int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+        int bound = TranspositionTable.getBound(entry);
 
-                        // apply alpha-beta pruning
-                        beta = Math.min(beta, evalActionPairChild[0]);
-                        if (beta <= alpha) {
-                            alphaBetaPruned = true;
-                        }
-                    }
+        return bound == TranspositionTable.EXACT ||
+                bound == TranspositionTable.LOWER && score >= beta ||
+                bound == TranspositionTable.UPPER && score <= alpha;
+    }
 
-                    // revert the action
-                    position.undoAction(actionChild);
-                }
-            }
+    /**
+     * toTableScore method
+     * <p>
+     * Converts a score to the form stored in the transposition table: a forced win is counted in moves from the position
+     * rather than from the root, since the same position can be reached at a different ply
+     *
+     * @param score {@code int} - The score of the position for the player to move
+     * @param ply {@code int} - The ply of the position
+     * @return {@code int} - The score to store
+     */
+    private static int toTableScore(int score, int ply) {
+        // declare variables
+        int stored = score;
+
+        if (score >= MIN_WIN_SCORE) stored = score + ply;
+        else if (score <= -MIN_WIN_SCORE) stored = score - ply;
+
+        return stored;
+    }
+
+    /**
+     * fromTableScore method
+     * <p>
+     * Converts a score stored in the transposition table back to a score counted from the root
+     *
+     * @param stored {@code int} - The stored score
+     * @param ply {@code int} - The ply of the position
+     * @return {@code int} - The score of the position for the player to move
+     */
+    private static int fromTableScore(int stored, int ply) {
+        // declare variables
+        int score = stored;
+
+        if (stored >= MIN_WIN_SCORE) score = stored - ply;
+        else if (stored <= -MIN_WIN_SCORE) score = stored + ply;
+
+        return score;
+    }
+
+    /**
+     * updatePv method
+     * <p>
+     * Makes a move followed by the principal variation of the next ply the principal variation of a ply
+     *
+     * @param ply {@code int} - The ply of the move
+     * @param move {@code int} - The packed move
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    /**
+     * recordCutoff method
+     * <p>
+     * Makes a move which caused a cutoff the newest killer move of its ply, and adds to its history score
+     *
+     * @param move {@code int} - The packed move
+     * @param depth {@code int} - The depth it was searched to
+     * @param ply {@code int} - The ply it was made at
+     */
+    private void recordCutoff(int move, int depth, int ply) {
+        // shift the older killer down, unless the move is already the newest
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
         }
 
-        return evalActionPair;
+        history[move] += depth * depth;
+
+        // keep the scores well inside the range of the move ordering scores
+        if (history[move] >= HISTORY_LIMIT) for (int i = 0; i < MOVE_SPACE; i++) history[i] /= 2;
+    }
+
+    /**
+     * ageOrdering method
+     * <p>
+     * Halves the history scores and forgets the killer moves before a new move is searched,
+     * since cutoffs from earlier in the game say less about the new position
+     */
+    private void ageOrdering() {
+        for (int i = 0; i < MOVE_SPACE; i++) history[i] /= 2;
+        for (int[] slots : killers) Arrays.fill(slots, NO_ACTION);
     }
 
     /**
      * eval method
      * <p>
-     * Evaluates the current state of the board as the difference between the distance from
-     * the pawn to the goal and the distance from the enemy to their goal
+     * Evaluates the current state of the board for the player to move as the difference between the distance from
+     * the enemy to their goal and the distance from the pawn to its goal
+     * (both are kept up to date by the board, so there is nothing worth caching).
+     * A pawn which cannot reach its goal counts as UNREACHABLE_DIST away, so the score stays far below a forced win.
      *
-     * @param maximizingPlayer {@code int} - The player to maximize
      * @param position {@code state.Board} - The current state of the board
      * @return {@code int} - The evaluation of the board
      */
-    private int eval(int maximizingPlayer, Board position) {
+    private int eval(Board position) {
         // declare variables
-        int maximizingPlayerDist;
-        int minimizingPlayerDist;
-        int value;
+        int selfDist = position.calcDistanceToGoal(position.getCurrentPawn());
+        int enemyDist = position.calcDistanceToGoal(position.getEnemy(position.getCurrentPawn()));
+
+        return Math.min(enemyDist, UNREACHABLE_DIST) - Math.min(selfDist, UNREACHABLE_DIST);
+    }
 
-        // check if the evaluation for this position has already been calculated and put if absent
-        if (transpositionsEvals.get(position) == null) {
-            maximizingPlayerDist = position.calcDistanceToGoal(position.getPawn(maximizingPlayer));
-            minimizingPlayerDist = position.calcDistanceToGoal(position.getEnemy(position.getPawn(maximizingPlayer)));
-            value = minimizingPlayerDist - maximizingPlayerDist;
+    /**
+     * ensureMoveBuffers method
+     * <p>
+     * Makes sure there is a move buffer big enough for the board for every ply of a search
+     * (and killer slots and a principal variation line for every ply, plus one for the positions after the last)
+     *
+     * @param plies {@code int} - The number of plies in the search
+     * @param board {@code state.Board} - The board being searched
+     */
+    private void ensureMoveBuffers(int plies, Board board) {
+        // declare variables
+        final int MAX_MOVES = 2 * (board.getSize() - 1) * (board.getSize() - 1) + Board.getMaxPawnMoves(); // every wall in both orientations, plus the pawn moves
+        int oldPlies = moveBuffers.length;
 
-            transpositionsEvals.put(position.copy(), value);
+        // buffers built for a smaller board have to be replaced
+        if (oldPlies > 0 && moveBuffers[0].length < MAX_MOVES) oldPlies = 0;
+
+        if (plies > oldPlies) {
+            moveBuffers = Arrays.copyOf(moveBuffers, plies);
+            moveScores = Arrays.copyOf(moveScores, plies);
+
+            for (int ply = oldPlies; ply < plies; ply++) {
+                moveBuffers[ply] = new int[MAX_MOVES];
+                moveScores[ply] = new int[MAX_MOVES];
+            }
         }
 
-        // if the evaluation has already been calculated, get the value
-        else value = transpositionsEvals.get(position);
+        if (plies + 1 > pvLength.length) {
+            pvTable = new int[plies + 1][plies + 1];
+            pvLength = new int[plies + 1];
+            killers = Arrays.copyOf(killers, plies + 1);
 
-        return value;
+            for (int ply = 0; ply <= plies; ply++) {
+                if (killers[ply] == null) {
+                    killers[ply] = new int[KILLER_SLOTS];
+                    Arrays.fill(killers[ply], NO_ACTION);
+                }
+            }
+        }
     }
 
     /**
-     * getChildren method
+     * generateChildren method
      * <p>
-     * 
-     * Returns a list of all possible moves from the current position
+     * Writes every possible move from the current position into the move buffer of a ply, in the order they should be searched.
+     * Walls are scored by how close they are to the enemy's goal (see state.Board.propagateSquares), and pawn moves are scored
+     * to come after the first few walls. Moves which have caused cutoffs elsewhere go ahead of that order: the killer moves
+     * of the ply first, then the rest by their history score. The best move from the transposition table comes before all
+     * of them (at the root, the best move of the last completed iteration does).
+     *
      * @param position {@code state.Board} - The current state of the board
-     * @return {@code List<List<Integer>>} - A list of all possible moves
+     * @param ply {@code int} - The ply whose buffer to fill
+     * @param tableMove {@code int} - The best packed move stored in the transposition table (NO_ACTION if there is none)
+     * @return {@code int} - The number of moves
      */
-    private List<List<Integer>> getChildren(Board position) {
+    private int generateChildren(Board position, int ply, int tableMove) {
         // declare variables
         final int PAWNMOVE_HEURISTIC_LOC = 16; // heuristic location for pawn moves (arbitrary)
-        List<List<Integer>> children;
-        int[] action;
-        List<Integer> actionColl;
-
-        // check if the children for this position have already been calculated and put if absent
-        if (transpositionsChildren.get(position) == null) {
-            // initialize a new ArrayList
-            children = new ArrayList<List<Integer>>();
-            boolean pawnMovesCalculated = false;
-
-            // loop over every wall placement
-            for (List<Integer> pos : position.propagateSquares(position.getCurrentPawn())) {
-                // initialize a vertical and horizontal wall object at this position and check if it is valid
-                if (position.validateWallPlace(position.getCurrentPawn(), new int[]{pos.get(0), pos.get(1)}, true)) {
-                    // encode it and add it to the list of children
-                    action = encodeAction(new Wall(position.getCurrentPlayer(), new int[]{pos.get(0), pos.get(1)}, true));
-                    actionColl = new ArrayList<Integer>();
-                    actionColl.add(action[0]);
-                    actionColl.add(action[1]);
-                    actionColl.add(action[2]);
-                    actionColl.add(action[3]);
-
-                    children.add(actionColl);
-                }
+        int[] moves = moveBuffers[ply];
+        int[] scores = moveScores[ply];
+        int pawnMoveCount;
+        int size = 0;
+        int pawnMoveLoc = -1;
+        int x;
+        int y;
+        int move;
+        int score;
+        int j;
+
+        // add every valid wall placement, scored by its place in the propagation (even scores)
+        for (int square : position.propagateSquares(position.getCurrentPawn())) {
+            x = square % position.getSize();
+            y = square / position.getSize();
+            wallPos[0] = x;
+            wallPos[1] = y;
+
+            if (position.validateWallPlace(position.getCurrentPawn(), wallPos, true)) {
+                moves[size] = Board.encodeWall(x, y, true);
+                scores[size] = 2 * size;
+                size++;
+            }
 
-                if (position.validateWallPlace(position.getCurrentPawn(), new int[]{pos.get(0), pos.get(1)}, false)) {
-                    // encode it and add it to the list of children
-                    action = encodeAction(new Wall(position.getCurrentPlayer(), new int[]{pos.get(0), pos.get(1)}, false));
-                    actionColl = new ArrayList<Integer>();
-                    actionColl.add(action[0]);
-                    actionColl.add(action[1]);
-                    actionColl.add(action[2]);
-                    actionColl.add(action[3]);
+            if (position.validateWallPlace(position.getCurrentPawn(), wallPos, false)) {
+                moves[size] = Board.encodeWall(x, y, false);
+                scores[size] = 2 * size;
+                size++;
+            }
 
-                    children.add(actionColl);
-                }
+            // the pawn moves go after the first position which brings the walls up to the heuristic location
+            if (pawnMoveLoc == -1 && size >= PAWNMOVE_HEURISTIC_LOC) pawnMoveLoc = size;
+        }
 
-                // if the size of the children is greater than the pawn heuristic, calculate the pawn moves
-                if (children.size() >= PAWNMOVE_HEURISTIC_LOC && !pawnMovesCalculated) {
-                    for (List<Integer> move : position.calcValidPawnMoves(position.getCurrentPawn())) {
-                        // encode it and add it to the list of children
-                        action = encodeAction(new int[]{move.get(0), move.get(1)});
-                        actionColl = new ArrayList<Integer>();
-                        actionColl.add(action[0]);
-                        actionColl.add(action[1]);
-                        actionColl.add(action[2]);
-                        actionColl.add(action[3]);
-
-                        children.add(actionColl);
-                    }
+        if (pawnMoveLoc == -1) pawnMoveLoc = size;
 
-                    pawnMovesCalculated = true;
-                }
-            }
+        // add every valid pawn move, scored just before the wall at the heuristic location (odd scores)
+        pawnMoveCount = position.calcPawnMoves(position.getCurrentPawn(), pawnMoves);
 
-            // check if the pawn moves hae not yet been calculated
-            if (!pawnMovesCalculated) {
-                for (List<Integer> move : position.calcValidPawnMoves(position.getCurrentPawn())) {
-                    // encode it and add it to the list of children
-                    action = encodeAction(new int[]{move.get(0), move.get(1)});
-                    actionColl = new ArrayList<Integer>();
-                    actionColl.add(action[0]);
-                    actionColl.add(action[1]);
-                    actionColl.add(action[2]);
-                    actionColl.add(action[3]);
-
-                    children.add(actionColl);
-                }
-            }
+        for (int i = 0; i < pawnMoveCount; i++) {
+            moves[size] = encodeSquare(position, pawnMoves[i]);
+            scores[size] = 2 * pawnMoveLoc - 1;
+            size++;
+        }
 
-            transpositionsChildren.put(position.copy(), children);
+        // the best move of the last completed iteration goes first at the root, otherwise the stored best move does
+        if (ply == 0 && pvAction != NO_ACTION) tableMove = pvAction;
+
+        // moves which have caused cutoffs go ahead of the static order (killers of this ply, then by history)
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == tableMove) scores[i] = Integer.MIN_VALUE;
+            else if (moves[i] == killers[ply][0]) scores[i] = Integer.MIN_VALUE + 1;
+            else if (moves[i] == killers[ply][1]) scores[i] = Integer.MIN_VALUE + 2;
+            else if (history[moves[i]] > 0) scores[i] = -history[moves[i]] - 1;
         }
 
-        // if the children have already been calculated, get the value
-        else children = transpositionsChildren.get(position);
+        // order the moves by score (insertion sort, since the walls are already in order)
+        for (int i = 1; i < size; i++) {
+            move = moves[i];
+            score = scores[i];
+
+            for (j = i - 1; j >= 0 && scores[j] > score; j--) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+            }
+
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
 
-        return children;
+        return size;
     }
 
     /**
@@ -669,22 +1367,25 @@ public class Agent {
      * Calculates the beeline path from the current position to the goal
      *
      * @param board {@code Pawn} - The pawn to calculate the path for
-     * @return {@code int[]} - The next action
+     * @return {@code int} - The next packed action
      */
-    private int[] beeline(Board board) {
+    private int beeline(Board board) {
         // declare variables
         Pawn self = board.getCurrentPawn();
         int currDist = board.calcDistanceToGoal(self);
         int newDist;
         int delta;
         int maxDelta = Integer.MIN_VALUE;
-        int[] old = self.getPos();
-        int[] action = new int[5];
+        int moveAction;
+        int action = 0;
+        int[] moves = new int[Board.getMaxPawnMoves()];
+        int moveCount = board.calcPawnMoves(self, moves);
 
         // loop through every possible pawn move
-        for (List<Integer> move : board.calcValidPawnMoves(self)) {
+        for (int i = 0; i < moveCount; i++) {
             // execute the move
-            self.moveTemp(new int[]{move.get(0), move.get(1)});
+            moveAction = encodeSquare(board, moves[i]);
+            board.doAction(moveAction);
 
             // calculate the distance to the goal
             newDist = board.calcDistanceToGoal(self);
@@ -693,11 +1394,11 @@ public class Agent {
             // if the delta is greater than the maximum delta, update the maximum delta and store the best move
             if (delta > maxDelta) {
                 maxDelta = delta;
-                action = encodeAction(new int[]{move.get(0), move.get(1)});
+                action = moveAction;
             }
 
             // revert the move
-            self.moveTemp(old);
+            board.undoAction(moveAction);
         }
 
         return action;
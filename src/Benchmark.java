@@ -0,0 +1,328 @@
+import state.Board;
+import state.component.Pawn;
+import state.component.Wall;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Benchmark class
+ * <p>
+ * Measures how move generation and search throughput scale with the size of the board,
+ * and how search and playout throughput scale with the number of threads (on the standard board).
+ * The board sizes to test can be given as arguments (9, 11 and 13 by default).
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+public class Benchmark {
+    // declare constants
+    private static final int[] DEFAULT_SIZES = {9, 11, 13};
+    private static final long SEED = 20240530L; // fixed so every run tests the same positions
+    private static final int POSITIONS = 200; // sample positions for each size
+    private static final int MAX_PLIES = 30; // most random moves played to reach a sample position
+    private static final int WALL_CHANCE = 3; // one in this many random moves is a wall (if one can be placed)
+    private static final int GEN_ROUNDS = 20; // timed passes of move generation over every sample position
+    private static final int SEARCHES = 10; // timed searches by the hard computer for each size
+    private static final long SEARCH_NODES = 20000; // node budget of each search (the time budget is not used)
+    private static final int THREAD_SEARCHES = 5; // timed searches for each number of threads
+    private static final long THREAD_SEARCH_TIME = 1000; // time budget of each search with threads (milliseconds)
+
+    /**
+     * main method
+     * <p>
+     * Runs the benchmark for every size and prints one row of results for each
+     *
+     * @param args {@code String[]} - The board sizes to test
+     */
+    public static void main(String[] args) {
+        // declare variables
+        int[] sizes = DEFAULT_SIZES;
+        List<Board> positions;
+
+        // read the sizes from the arguments
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%-6s %14s %12s %12s %14s %12s%n",
+                "size", "movegen pos/s", "moves/pos", "nodes/s", "nodes/search", "ms/search");
+
+        for (int size : sizes) {
+            positions = samplePositions(size, new Random(SEED + size));
+
+            System.out.printf("%-6s ", size + "x" + size);
+            benchMoveGeneration(positions);
+            benchSearch(positions);
+        }
+
+        positions = samplePositions(Board.getDefaultSize(), new Random(SEED + Board.getDefaultSize()));
+        benchThreads(positions);
+        benchMonteCarlo(positions);
+    }
+
+    /**
+     * samplePositions method
+     * <p>
+     * Builds sample positions by playing random moves from the start of a game
+     *
+     * @param size {@code int} - The size of the board
+     * @param random {@code Random} - The random number generator
+     * @return {@code List<state.Board>} - The sample positions
+     */
+    private static List<Board> samplePositions(int size, Random random) {
+        // declare variables
+        List<Board> positions = new ArrayList<Board>();
+        int[] pawnMoves = new int[Board.getMaxPawnMoves()];
+        List<Wall> walls;
+        Wall wall;
+        Board board;
+        Pawn self;
+        int plies;
+        int count;
+        int square;
+        boolean finished;
+
+        while (positions.size() < POSITIONS) {
+            board = new Board(false, size);
+            plies = random.nextInt(MAX_PLIES + 1);
+            finished = false;
+
+            // play random moves, stopping early if a pawn reaches its goal
+            for (int ply = 0; ply < plies && !finished; ply++) {
+                self = board.getCurrentPawn();
+                walls = new ArrayList<Wall>(board.calcValidWallPlacements(self));
+
+                if (!walls.isEmpty() && random.nextInt(WALL_CHANCE) == 0) {
+                    // sort the walls so the choice does not depend on hash order
+                    walls.sort(Comparator.comparingInt((Wall w) -> w.getX() * size + w.getY()).thenComparing(Wall::isVertical));
+                    wall = walls.get(random.nextInt(walls.size()));
+                    board.placeWall(self, wall.getPos(), wall.isVertical());
+                    board.nextPlayer();
+                } else {
+                    count = board.calcPawnMoves(self, pawnMoves);
+                    square = pawnMoves[random.nextInt(count)];
+                    board.movePawn(self, new int[]{square % size, square / size});
+                    board.nextPlayer();
+                    finished = self.getY() == self.getYGoal();
+                }
+            }
+
+            if (!finished) positions.add(board);
+        }
+
+        return positions;
+    }
+
+    /**
+     * benchMoveGeneration method
+     * <p>
+     * Times listing every pawn move and legal wall placement of each sample position, and prints the throughput
+     *
+     * @param positions {@code List<state.Board>} - The sample positions
+     */
+    private static void benchMoveGeneration(List<Board> positions) {
+        // declare variables
+        long moves = 0;
+        long start;
+        long elapsed;
+
+        // warm up once, then time the rounds
+        countMoves(positions);
+
+        start = System.nanoTime();
+        for (int round = 0; round < GEN_ROUNDS; round++) moves += countMoves(positions);
+        elapsed = System.nanoTime() - start;
+
+        System.out.printf("%14.0f %12.1f ",
+                (double) GEN_ROUNDS * positions.size() / (elapsed / 1e9),
+                (double) moves / (GEN_ROUNDS * positions.size()));
+    }
+
+    /**
+     * countMoves method
+     * <p>
+     * Lists every move of each position the same way the computer does (pawn moves, then every wall slot)
+     *
+     * @param positions {@code List<state.Board>} - The positions
+     * @return {@code long} - The total number of moves
+     */
+    private static long countMoves(List<Board> positions) {
+        // declare variables
+        int[] pawnMoves = new int[Board.getMaxPawnMoves()];
+        long moves = 0;
+        Pawn self;
+
+        for (Board board : positions) {
+            self = board.getCurrentPawn();
+            moves += board.calcPawnMoves(self, pawnMoves);
+
+            for (int x = 0; x < board.getSize() - 1; x++) {
+                for (int y = 1; y < board.getSize(); y++) {
+                    if (board.validateWallPlace(self, new int[]{x, y}, true)) moves++;
+                    if (board.validateWallPlace(self, new int[]{x, y}, false)) moves++;
+                }
+            }
+        }
+
+        return moves;
+    }
+
+    /**
+     * benchSearch method
+     * <p>
+     * Times the hard computer on some of the sample positions (with empty transposition tables), and prints the throughput
+     *
+     * @param positions {@code List<state.Board>} - The sample positions
+     */
+    private static void benchSearch(List<Board> positions) {
+        // declare variables
+        PrintStream out = System.out;
+        Agent agent = new Agent(1, Long.MAX_VALUE / 1_000_000, SEARCH_NODES);
+        long nodes = 0;
+        long elapsed = 0;
+        long start;
+        int before;
+        Board board;
+
+        // hide the computer's progress output
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        // warm up once, then time the searches
+        Agent.clearTranspositions();
+        agent.getAction(positions.get(positions.size() - 1).copy());
+
+        for (int i = 0; i < SEARCHES; i++) {
+            board = positions.get(i * positions.size() / SEARCHES).copy();
+            Agent.clearTranspositions();
+            before = agent.getNodeCount();
+
+            start = System.nanoTime();
+            agent.getAction(board);
+            elapsed += System.nanoTime() - start;
+            nodes += agent.getNodeCount() - before;
+        }
+
+        agent.close();
+        System.setOut(out);
+        System.out.printf("%12.0f %14.0f %12.1f%n", nodes / (elapsed / 1e9), (double) nodes / SEARCHES, elapsed / 1e6 / SEARCHES);
+    }
+
+    /**
+     * benchThreads method
+     * <p>
+     * Times the hard computer with every power of two threads up to the number of processors, sharing the transposition
+     * table (Lazy SMP) and splitting the tree (YBWC), and prints the node rate and its speedup over one thread
+     *
+     * @param positions {@code List<state.Board>} - The sample positions
+     */
+    private static void benchThreads(List<Board> positions) {
+        // declare variables
+        int processors = Runtime.getRuntime().availableProcessors();
+        double[] base;
+        double[] result;
+
+        System.out.printf("%n%-8s %-6s %12s %8s %7s%n", "threads", "mode", "nodes/s", "speedup", "depth");
+
+        base = benchThreadCount(positions, 1, false);
+        System.out.printf("%-8d %-6s %12.0f %8.2f %7.1f%n", 1, "serial", base[0], 1.0, base[1]);
+
+        for (int threads = 2; threads <= processors; threads *= 2) {
+            result = benchThreadCount(positions, threads, false);
+            System.out.printf("%-8d %-6s %12.0f %8.2f %7.1f%n", threads, "smp", result[0], result[0] / base[0], result[1]);
+
+            result = benchThreadCount(positions, threads, true);
+            System.out.printf("%-8d %-6s %12.0f %8.2f %7.1f%n", threads, "ybwc", result[0], result[0] / base[0], result[1]);
+        }
+    }
+
+    /**
+     * benchThreadCount method
+     * <p>
+     * Times the hard computer with a number of threads on some of the sample positions (with empty transposition tables)
+     *
+     * @param positions {@code List<state.Board>} - The sample positions
+     * @param threads {@code int} - The number of threads
+     * @param splitting {@code boolean} - Whether the threads split the tree (YBWC) instead of sharing the table (Lazy SMP)
+     * @return {@code double[]} - The positions searched per second (on every thread), and the mean depth completed
+     */
+    private static double[] benchThreadCount(List<Board> positions, int threads, boolean splitting) {
+        // declare variables
+        PrintStream out = System.out;
+        Agent agent = new Agent(1, THREAD_SEARCH_TIME, Long.MAX_VALUE, threads, splitting);
+        long nodes = 0;
+        long elapsed = 0;
+        long start;
+        int before;
+        int depths = 0;
+        Board board;
+
+        // hide the computer's progress output
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        for (int i = 0; i < THREAD_SEARCHES; i++) {
+            board = positions.get(i * positions.size() / THREAD_SEARCHES).copy();
+            Agent.clearTranspositions();
+            before = agent.getNodeCount();
+
+            start = System.nanoTime();
+            agent.getAction(board);
+            elapsed += System.nanoTime() - start;
+            nodes += agent.getNodeCount() - before;
+            depths += agent.getLastDepth();
+        }
+
+        agent.close();
+        System.setOut(out);
+
+        return new double[]{nodes / (elapsed / 1e9), (double) depths / THREAD_SEARCHES};
+    }
+
+    /**
+     * benchMonteCarlo method
+     * <p>
+     * Times the expert computer with every power of two threads up to the number of processors (with a new tree for
+     * every search), and prints the playout rate and its speedup over one thread
+     *
+     * @param positions {@code List<state.Board>} - The sample positions
+     */
+    private static void benchMonteCarlo(List<Board> positions) {
+        // declare variables
+        int processors = Runtime.getRuntime().availableProcessors();
+        PrintStream out = System.out;
+        double baseRate = 0;
+        double rate;
+        long playouts;
+        long elapsed;
+        long start;
+        Agent agent;
+
+        System.out.printf("%n%-8s %12s %8s%n", "threads", "playouts/s", "speedup");
+
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            playouts = 0;
+            elapsed = 0;
+
+            // hide the computer's progress output
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+            for (int i = 0; i < THREAD_SEARCHES; i++) {
+                agent = new Agent(2, THREAD_SEARCH_TIME, Long.MAX_VALUE, threads);
+
+                start = System.nanoTime();
+                agent.getAction(positions.get(i * positions.size() / THREAD_SEARCHES).copy());
+                elapsed += System.nanoTime() - start;
+                playouts += agent.getPlayoutCount();
+                agent.close();
+            }
+
+            System.setOut(out);
+
+            rate = playouts / (elapsed / 1e9);
+            if (threads == 1) baseRate = rate;
+
+            System.out.printf("%-8d %12.0f %8.2f%n", threads, rate, rate / baseRate);
+        }
+    }
+}
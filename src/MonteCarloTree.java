@@ -0,0 +1,609 @@
+import state.Board;
+import state.component.Pawn;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * MonteCarloTree class
+ * <p>
+ * Represents the search tree of the Monte Carlo computer (PUCT).
+ * Each playout walks down the tree choosing the move with the best mix of its win rate, its prior (from the same
+ * heuristics as the other computers) and how little it has been tried, adds the children of a leaf once it has been
+ * visited enough, and finishes the game quickly from there (beeline pawn moves and the occasional wall which lengthens
+ * the enemy's path). The result is added to every move on the way down.
+ * Several threads can share the tree: each move a thread walks through gets a virtual loss until the real result is added,
+ * so the other threads spread out instead of all following the same line.
+ * Nodes are stored in flat arrays, and the part of the tree below the moves actually played can be kept for the next turn
+ * (moved to the front of the same arrays).
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+class MonteCarloTree {
+    // declare constants
+    private static final int NO_ACTION = -1; // packed action meaning no move has been found
+    private static final int CAPACITY = 1 << 19; // most nodes the tree can hold (about 36 bytes each)
+    private static final int EXPANDING = -1; // child count of a node whose children are being added by another thread
+    private static final int FULL = -2; // child count of a node whose children did not fit in the tree
+    private static final int EXPAND_VISITS = 8; // visits (including virtual losses) a leaf needs before its children are added
+    private static final int VIRTUAL_LOSS = 3; // lost visits added to a move while a thread is playing out through it
+    private static final double EXPLORATION = 1.5; // weight of the prior and visit count against the win rate
+    private static final int MAX_PLAYOUT_PLIES = 200; // moves after which a playout is decided by distance
+    private static final int PLAYOUT_WALL_CHANCE = 6; // one in this many playout moves tries a wall (if the player has one)
+    private static final int PLAYOUT_WALL_CANDIDATES = 8; // best wall positions (from propagateSquares) a playout wall is chosen from
+    private static final double WIN_WEIGHT = 1000; // prior weight of a pawn move which wins
+    private static final double FORWARD_WEIGHT = 8; // prior weight of a pawn move which gets closer to the goal
+    private static final double QUIET_WALL_WEIGHT = 0.25; // prior weight of a wall which does not lengthen the enemy's path
+    private static final double RANK_FALLOFF = 8; // wall positions this far down the propagation have half the prior weight
+
+    // declare fields
+    private final int[] moves = new int[CAPACITY]; // [node] the packed move which leads to the node
+    private final long[] keys = new long[CAPACITY]; // [node] the key of the node's position
+    private final float[] priors = new float[CAPACITY]; // [node] the prior probability of the move which leads to the node
+    private final int[] firstChild = new int[CAPACITY]; // [node] the index of the node's first child (children are contiguous)
+    private final AtomicIntegerArray childCounts = new AtomicIntegerArray(CAPACITY); // [node] the number of children (0 until they are added)
+    private final AtomicIntegerArray visits = new AtomicIntegerArray(CAPACITY); // [node] playouts through the node (including virtual losses)
+    private final AtomicIntegerArray wins = new AtomicIntegerArray(CAPACITY); // [node] playouts won by the player who made the node's move
+    private final AtomicInteger size = new AtomicInteger(); // the number of nodes in use
+    private final int[] remap = new int[CAPACITY]; // [node] the new index of each kept node while the tree is compacted
+    private final int root = 0; // the index of the root node
+
+    /**
+     * MonteCarloTree constructor
+     * <p>
+     * Constructor for a tree with nothing but a root
+     *
+     * @param board {@code state.Board} - The position at the root
+     */
+    MonteCarloTree(Board board) {
+        moves[root] = NO_ACTION;
+        keys[root] = board.getKey();
+        size.set(1);
+    }
+
+    /**
+     * reuse method
+     * <p>
+     * Prepares the tree for a new turn, keeping the subtree of the position if it is the root, one of its children,
+     * or one of its grandchildren (after the computer's move and the reply), and starting again from a bare root otherwise.
+     * The tree must not be searching.
+     *
+     * @param board {@code state.Board} - The position to search
+     */
+    void reuse(Board board) {
+        // declare variables
+        long key = board.getKey();
+        int found = keys[root] == key ? root : NO_ACTION;
+        int child;
+        int grandchild;
+
+        // look through the children and grandchildren of the root
+        for (int i = 0; i < childCounts.get(root) && found == NO_ACTION; i++) {
+            child = firstChild[root] + i;
+            if (keys[child] == key) found = child;
+
+            for (int j = 0; j < childCounts.get(child) && found == NO_ACTION; j++) {
+                grandchild = firstChild[child] + j;
+                if (keys[grandchild] == key) found = grandchild;
+            }
+        }
+
+        if (found == NO_ACTION) {
+            clearNodes(0, Math.min(size.get(), CAPACITY));
+            moves[root] = NO_ACTION;
+            keys[root] = key;
+            size.set(1);
+        }
+
+        else if (found != root) compact(found);
+    }
+
+    /**
+     * compact method
+     * <p>
+     * Moves the subtree of a node to the front of the arrays, with the node as the new root.
+     * Every node is added after its parent, so the nodes of the subtree keep their order and only ever move down,
+     * and each node's children (which were added together) stay contiguous.
+     *
+     * @param newRoot {@code int} - The node which becomes the root
+     */
+    private void compact(int newRoot) {
+        // declare variables
+        int end = Math.min(size.get(), CAPACITY);
+        int count = 0;
+        int childCount;
+        int target;
+
+        // number the nodes of the subtree in order (a node's children always come after it)
+        Arrays.fill(remap, newRoot, end, NO_ACTION);
+        remap[newRoot] = 0;
+
+        for (int node = newRoot; node < end; node++) {
+            if (remap[node] != NO_ACTION) {
+                remap[node] = count++;
+                childCount = childCounts.get(node);
+
+                for (int i = 0; i < childCount; i++) remap[firstChild[node] + i] = 0;
+            }
+        }
+
+        // move each node down to its new index (which is never above its old one)
+        for (int node = newRoot; node < end; node++) {
+            if (remap[node] != NO_ACTION) {
+                target = remap[node];
+                childCount = childCounts.get(node);
+
+                moves[target] = moves[node];
+                keys[target] = keys[node];
+                priors[target] = priors[node];
+                visits.set(target, visits.get(node));
+                wins.set(target, wins.get(node));
+
+                // nodes whose children did not fit may try again in the freed space
+                firstChild[target] = childCount > 0 ? remap[firstChild[node]] : 0;
+                childCounts.set(target, Math.max(childCount, 0));
+            }
+        }
+
+        moves[root] = NO_ACTION;
+        clearNodes(count, end);
+        size.set(count);
+    }
+
+    /**
+     * clearNodes method
+     * <p>
+     * Resets the counts of a range of nodes, so they can be handed out again as new children
+     *
+     * @param from {@code int} - The first node (inclusive)
+     * @param to {@code int} - The last node (exclusive)
+     */
+    private void clearNodes(int from, int to) {
+        for (int node = from; node < to; node++) {
+            childCounts.set(node, 0);
+            visits.set(node, 0);
+            wins.set(node, 0);
+        }
+    }
+
+    /**
+     * search method
+     * <p>
+     * Runs playouts from the root on every thread until the time or playout budget runs out
+     *
+     * @param board {@code state.Board} - The position at the root (not changed)
+     * @param timeBudget {@code long} - The milliseconds the search may take
+     * @param playoutBudget {@code long} - The playouts the search may run
+     * @param pool {@code ExecutorService} - The threads to run playouts on besides the calling thread
+     * @param threads {@code int} - The number of threads to run playouts on, including the calling thread
+     * @return {@code long} - The number of playouts run
+     */
+    long search(Board board, long timeBudget, long playoutBudget, ExecutorService pool, int threads) {
+        // declare variables
+        AtomicLong playouts = new AtomicLong();
+        List<Future<?>> running = new ArrayList<Future<?>>();
+        long start = System.nanoTime();
+
+        // add the root's children first, so every thread spreads out at once
+        if (childCounts.compareAndSet(root, 0, EXPANDING)) expand(root, board);
+
+        for (int i = 1; i < threads; i++) running.add(submitPlayouts(pool, board.copy(), start, timeBudget, playoutBudget, playouts));
+
+        runPlayouts(board.copy(), start, timeBudget, playoutBudget, playouts);
+
+        // wait for the other threads to finish their last playouts
+        for (Future<?> thread : running) {
+            try {
+                thread.get();
+            }
+            // catch exceptions
+            catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // every thread which stopped for the playout budget took one playout too many from the counter
+        return Math.min(playouts.get(), playoutBudget);
+    }
+
+    /**
+     * getBestMove method
+     * <p>
+     * Gets the move from the root which has been played out the most
+     *
+     * @return {@code int} - The packed move, or -1 if the root has no moves
+     */
+    int getBestMove() {
+        // declare variables
+        int best = NO_ACTION;
+        int bestVisits = -1;
+
+        for (int child = firstChild[root]; child < firstChild[root] + childCounts.get(root); child++) {
+            if (visits.get(child) > bestVisits) {
+                bestVisits = visits.get(child);
+                best = moves[child];
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * getRootVisits method
+     * <p>
+     * Gets the number of playouts through the root (including those kept from earlier turns)
+     *
+     * @return {@code int} - The number of playouts
+     */
+    int getRootVisits() {
+        return visits.get(root);
+    }
+
+    /**
+     * submitPlayouts method
+     * <p>
+     * Runs playouts on one of the pool's threads
+     *
+     * @param pool {@code ExecutorService} - The threads
+     * @param copy {@code state.Board} - The thread's copy of the root position
+     * @param start {@code long} - System.nanoTime() when the search started
+     * @param timeBudget {@code long} - The milliseconds the search may take
+     * @param playoutBudget {@code long} - The playouts the search may run
+     * @param playouts {@code AtomicLong} - The playouts started by every thread
+     * @return {@code Future<?>} - The running thread
+     */
+    private Future<?> submitPlayouts(ExecutorService pool, Board copy, long start, long timeBudget, long playoutBudget,
+                                     AtomicLong playouts) {
+        return pool.submit(() -> runPlayouts(copy, start, timeBudget, playoutBudget, playouts));
+    }
+
+    /**
+     * runPlayouts method
+     * <p>
+     * Runs playouts until the time or playout budget runs out
+     *
+     * @param position {@code state.Board} - The thread's copy of the root position
+     * @param start {@code long} - System.nanoTime() when the search started
+     * @param timeBudget {@code long} - The milliseconds the search may take
+     * @param playoutBudget {@code long} - The playouts the search may run
+     * @param playouts {@code AtomicLong} - The playouts started by every thread
+     */
+    private void runPlayouts(Board position, long start, long timeBudget, long playoutBudget, AtomicLong playouts) {
+        // declare variables
+        Random random = ThreadLocalRandom.current();
+        int[] path = new int[MAX_PLAYOUT_PLIES];
+        int[] pawnMoves = new int[Board.getMaxPawnMoves()];
+        int[] stack = new int[MAX_PLAYOUT_PLIES];
+
+        while (System.nanoTime() - start < timeBudget * 1_000_000 && playouts.incrementAndGet() <= playoutBudget) {
+            path = playout(position, random, path, pawnMoves, stack);
+        }
+    }
+
+    /**
+     * playout method
+     * <p>
+     * Walks down the tree from the root (adding a leaf's children if it has been visited enough), finishes the game
+     * from the position reached, and adds the result to every node on the way
+     *
+     * @param position {@code state.Board} - The thread's copy of the root position (restored before returning)
+     * @param random {@code Random} - The random number generator
+     * @param path {@code int[]} - A buffer for the nodes walked through
+     * @param pawnMoves {@code int[]} - A buffer for pawn moves
+     * @param stack {@code int[]} - A buffer for the moves of the rollout
+     * @return {@code int[]} - The path buffer (grown if the tree was deeper than it)
+     */
+    private int[] playout(Board position, Random random, int[] path, int[] pawnMoves, int[] stack) {
+        // declare variables
+        int node = root;
+        int depth = 0;
+        int count;
+        int result;
+        boolean over = false;
+        boolean descending = true;
+        Pawn mover;
+
+        path[0] = root;
+        visits.addAndGet(root, VIRTUAL_LOSS);
+
+        // walk down the tree until a leaf or the end of the game
+        while (!over && descending) {
+            count = childCounts.get(node);
+
+            if (count == 0 && visits.get(node) >= EXPAND_VISITS && childCounts.compareAndSet(node, 0, EXPANDING)) {
+                count = expand(node, position);
+            }
+
+            if (count > 0) {
+                node = select(node, count);
+                visits.addAndGet(node, VIRTUAL_LOSS);
+
+                mover = position.getCurrentPawn();
+                position.doAction(moves[node]);
+
+                if (++depth == path.length) path = Arrays.copyOf(path, depth * 2);
+                path[depth] = node;
+
+                over = mover.getY() == mover.getYGoal();
+            }
+
+            else descending = false;
+        }
+
+        // 1 if the player who made the last move on the path wins
+        if (over) result = 1;
+        else result = 1 - rollout(position, random, pawnMoves, stack);
+
+        // add the result to every node on the path (each for the player who made its move), taking the virtual losses away
+        for (int i = depth; i >= 0; i--) {
+            wins.addAndGet(path[i], result);
+            visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+            result = 1 - result;
+
+            if (i > 0) position.undoAction(moves[path[i]]);
+        }
+
+        return path;
+    }
+
+    /**
+     * select method
+     * <p>
+     * Chooses the child with the best win rate plus exploration bonus (its prior, shrinking as it is visited)
+     *
+     * @param node {@code int} - The node
+     * @param count {@code int} - The number of children of the node
+     * @return {@code int} - The index of the child
+     */
+    private int select(int node, int count) {
+        // declare variables
+        double scale = EXPLORATION * Math.sqrt(Math.max(1, visits.get(node)));
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double value;
+        int best = firstChild[node];
+        int childVisits;
+
+        for (int child = firstChild[node]; child < firstChild[node] + count; child++) {
+            childVisits = visits.get(child);
+            value = (childVisits > 0 ? (double) wins.get(child) / childVisits : 0) + scale * priors[child] / (1 + childVisits);
+
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * expand method
+     * <p>
+     * Adds every move of a node's position as its children, with priors from cheap heuristics: pawn moves which get
+     * closer to the goal are much more likely to be good, and walls are more likely the closer they are to the enemy's goal
+     * (see state.Board.propagateSquares) and the more they lengthen the enemy's path.
+     * The caller must have set the node's child count to EXPANDING.
+     *
+     * @param node {@code int} - The node
+     * @param position {@code state.Board} - The node's position (restored before returning)
+     * @return {@code int} - The number of children added (0 if there are none or they did not fit)
+     */
+    private int expand(int node, Board position) {
+        // declare variables
+        Pawn self = position.getCurrentPawn();
+        Pawn enemy = position.getEnemy(self);
+        int boardSize = position.getSize();
+        int maxMoves = 2 * (boardSize - 1) * (boardSize - 1) + Board.getMaxPawnMoves();
+        int[] children = new int[maxMoves];
+        long[] childKeys = new long[maxMoves];
+        double[] weights = new double[maxMoves];
+        int[] pawnMoves = new int[Board.getMaxPawnMoves()];
+        int[] wallPos = new int[2];
+        int[] squares;
+        int selfDist = position.calcDistanceToGoal(self);
+        int enemyDist = position.calcDistanceToGoal(enemy);
+        int pawnMoveCount = position.calcPawnMoves(self, pawnMoves);
+        int count = 0;
+        int start;
+        int action;
+        int gain;
+        double total = 0;
+
+        // add every pawn move
+        for (int i = 0; i < pawnMoveCount; i++) {
+            action = Board.encodeMove(pawnMoves[i] % boardSize, pawnMoves[i] / boardSize);
+            position.doAction(action);
+
+            if (self.getY() == self.getYGoal()) weights[count] = WIN_WEIGHT;
+            else if (position.calcDistanceToGoal(self) < selfDist) weights[count] = FORWARD_WEIGHT;
+            else weights[count] = 1;
+
+            children[count] = action;
+            childKeys[count++] = position.getKey();
+            position.undoAction(action);
+        }
+
+        // add every valid wall placement, in the order of the propagation
+        if (position.getWallsRemaining(self) > 0) {
+            squares = position.propagateSquares(self);
+
+            for (int rank = 0; rank < squares.length; rank++) {
+                wallPos[0] = squares[rank] % boardSize;
+                wallPos[1] = squares[rank] / boardSize;
+
+                for (boolean vertical : new boolean[]{true, false}) {
+                    if (position.validateWallPlace(self, wallPos, vertical)) {
+                        action = Board.encodeWall(squares[rank] % boardSize, squares[rank] / boardSize, vertical);
+                        position.doAction(action);
+
+                        gain = position.calcDistanceToGoal(enemy) - enemyDist;
+                        weights[count] = (gain > 0 ? 1 + gain : QUIET_WALL_WEIGHT) / (1 + rank / RANK_FALLOFF);
+
+                        children[count] = action;
+                        childKeys[count++] = position.getKey();
+                        position.undoAction(action);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) total += weights[i];
+
+        // take space for the children, giving up on the node for good if the tree is full
+        start = size.getAndAdd(count);
+
+        if (start + count > CAPACITY) {
+            childCounts.set(node, FULL);
+            count = 0;
+        }
+
+        else {
+            for (int i = 0; i < count; i++) {
+                moves[start + i] = children[i];
+                keys[start + i] = childKeys[i];
+                priors[start + i] = (float) (weights[i] / total);
+            }
+
+            // the children are only seen by other threads once the count is set
+            firstChild[node] = start;
+            childCounts.set(node, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * rollout method
+     * <p>
+     * Finishes the game quickly: each player moves their pawn along a shortest path (ties broken at random), but sometimes
+     * places one of the best few walls by the propagation instead, if it lengthens the enemy's path.
+     * Once neither player has a wall left (or the rollout is too long), the player closer to their goal wins
+     * (the player to move wins ties). A player with no moves at all loses.
+     *
+     * @param position {@code state.Board} - The position to finish (restored before returning)
+     * @param random {@code Random} - The random number generator
+     * @param pawnMoves {@code int[]} - A buffer for pawn moves
+     * @param stack {@code int[]} - A buffer for the moves made
+     * @return {@code int} - 1 if the player to move in the position wins, otherwise 0
+     */
+    private int rollout(Board position, Random random, int[] pawnMoves, int[] stack) {
+        // declare variables
+        int startPlayer = position.getCurrentPlayer();
+        int winner = 0;
+        int plies = 0;
+        int action;
+        Pawn self;
+        Pawn enemy;
+
+        while (winner == 0) {
+            self = position.getCurrentPawn();
+            enemy = position.getEnemy(self);
+
+            // decide the race by distance
+            if (plies == MAX_PLAYOUT_PLIES || position.getWallsRemaining(self) == 0 && position.getWallsRemaining(enemy) == 0) {
+                winner = position.calcDistanceToGoal(self) <= position.calcDistanceToGoal(enemy) ? self.getId() : enemy.getId();
+            }
+
+            else {
+                action = NO_ACTION;
+
+                if (position.getWallsRemaining(self) > 0 && random.nextInt(PLAYOUT_WALL_CHANCE) == 0) {
+                    action = pickWall(position, self, enemy, random);
+                }
+
+                if (action == NO_ACTION) action = pickPawnMove(position, self, random, pawnMoves);
+
+                // a player who cannot move loses
+                if (action == NO_ACTION) winner = enemy.getId();
+
+                else {
+                    position.doAction(action);
+                    stack[plies++] = action;
+
+                    if (self.getY() == self.getYGoal()) winner = self.getId();
+                }
+            }
+        }
+
+        // revert the rollout
+        while (plies > 0) position.undoAction(stack[--plies]);
+
+        return winner == startPlayer ? 1 : 0;
+    }
+
+    /**
+     * pickPawnMove method
+     * <p>
+     * Chooses a pawn move along a shortest path to the goal (ties broken at random)
+     *
+     * @param position {@code state.Board} - The current position
+     * @param self {@code state.component.Pawn} - The pawn to move
+     * @param random {@code Random} - The random number generator
+     * @param pawnMoves {@code int[]} - A buffer for pawn moves
+     * @return {@code int} - The packed move, or -1 if the pawn cannot move
+     */
+    private static int pickPawnMove(Board position, Pawn self, Random random, int[] pawnMoves) {
+        // declare variables
+        int count = position.calcPawnMoves(self, pawnMoves);
+        int best = NO_ACTION;
+        int bestDist = Integer.MAX_VALUE;
+        int ties = 0;
+        int action;
+        int dist;
+
+        for (int i = 0; i < count; i++) {
+            action = Board.encodeMove(pawnMoves[i] % position.getSize(), pawnMoves[i] / position.getSize());
+            position.doAction(action);
+            dist = self.getY() == self.getYGoal() ? 0 : position.calcDistanceToGoal(self);
+            position.undoAction(action);
+
+            if (best == NO_ACTION || dist < bestDist) {
+                best = action;
+                bestDist = dist;
+                ties = 1;
+            }
+            else if (dist == bestDist && random.nextInt(++ties) == 0) best = action;
+        }
+
+        return best;
+    }
+
+    /**
+     * pickWall method
+     * <p>
+     * Chooses one of the best few wall positions by the propagation at random, if it is valid and lengthens the enemy's path
+     *
+     * @param position {@code state.Board} - The current position
+     * @param self {@code state.component.Pawn} - The pawn placing the wall
+     * @param enemy {@code state.component.Pawn} - The enemy pawn
+     * @param random {@code Random} - The random number generator
+     * @return {@code int} - The packed wall, or -1 if the chosen wall is not worth placing
+     */
+    private static int pickWall(Board position, Pawn self, Pawn enemy, Random random) {
+        // declare variables
+        int[] squares = position.propagateSquares(self);
+        int enemyDist = position.calcDistanceToGoal(enemy);
+        int action = NO_ACTION;
+        int square;
+        int wall;
+        boolean vertical;
+
+        if (squares.length > 0) {
+            square = squares[random.nextInt(Math.min(PLAYOUT_WALL_CANDIDATES, squares.length))];
+            vertical = random.nextBoolean();
+
+            if (position.validateWallPlace(self, new int[]{square % position.getSize(), square / position.getSize()}, vertical)) {
+                wall = Board.encodeWall(square % position.getSize(), square / position.getSize(), vertical);
+
+                // only place the wall if it makes the enemy's path longer
+                position.doAction(wall);
+                if (position.calcDistanceToGoal(enemy) > enemyDist) action = wall;
+                position.undoAction(wall);
+            }
+        }
+
+        return action;
+    }
+}
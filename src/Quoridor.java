@@ -15,8 +15,8 @@ import java.io.*;
  */
 public class Quoridor {
     // declare constants
-    private static final int SIZE = Board.getSize();
-    private static final int MAX_WALLS = Board.getMaxWalls();
+    private static final int SIZE = Board.getDefaultSize();
+    private static final int MAX_WALLS = Board.calcMaxWalls(SIZE);
 
     // declare variables
     private static Scanner sc = new Scanner(System.in);
@@ -163,18 +163,19 @@ public class Quoridor {
 
                 System.out.println("{     <N>ormal                }");
                 System.out.println("{     <H>ard                  }");
+                System.out.println("{     <E>xpert                }");
                 System.out.println("{     <Q>uit                  }");
 
                 System.out.println("\n-------------------------------\n");
 
                 // get the user's choice
-                choice = validateInput(new HashSet<Character>(Arrays.asList('N', 'H', 'Q')));
+                choice = validateInput(new HashSet<Character>(Arrays.asList('N', 'H', 'E', 'Q')));
 
                 // quit the loop
                 if (choice == 'Q') quit = true;
 
                     // set the agent difficulty
-                else agentDiff = choice == 'N' ? 0 : 1;
+                else agentDiff = choice == 'N' ? 0 : choice == 'H' ? 1 : 2;
             }
 
             if (agentDiff != -1) board = new Board(false);
@@ -525,7 +526,7 @@ public class Quoridor {
      */
     private static void load(String filename) {
         // regex strings
-        final String PLAYERS_REGEX = "^[OX]\\s[a-i][1-9]:\\s((Human)|(Computer \\(difficulty: ((normal)|(hard))\\)))$";
+        final String PLAYERS_REGEX = "^[OX]\\s[a-i][1-9]:\\s((Human)|(Computer \\(difficulty: ((normal)|(hard)|(expert))\\)))$";
         final String WALLS_REGEX = "^([0-9]|(1[0-9])|(20))\\s\\{O:\\s([0-9]|(10))\\s,\\sX:\\s([0-9]|(10))\\s}:$";
         final String WALL_REGEX = "^[|-]\\s[a-i][1-9]:\\s[OX]$";
 
@@ -591,8 +592,10 @@ public class Quoridor {
                     if (!p2Human) {
                         if (chars[28] == 'n') p2AgentDiff = 0;
                         else if (chars[28] == 'h') p2AgentDiff = 1;
+                        else if (chars[28] == 'e') p2AgentDiff = 2;
                     }
 
+                    if (p2Agent != null) p2Agent.close(); // stop the threads of the last computer
                     p2Agent = p2Human ? null : new Agent(p2AgentDiff); // initialize a new computer object
                 }
 
@@ -722,7 +725,7 @@ public class Quoridor {
                 bw.write("Human\n\n");
             } else {
                 bw.write("Computer (difficulty: ");
-                bw.write(p2Agent.getDiff() == 0 ? "normal" : "hard");
+                bw.write(p2Agent.getDiff() == 0 ? "normal" : p2Agent.getDiff() == 1 ? "hard" : "expert");
                 bw.write(")\n\n");
             }
 
@@ -915,15 +918,10 @@ public class Quoridor {
      */
     public static void main(String[] args) {
         // declare variables
-        final String TRANSPOSITIONS_PATH = "./transpositions/";
         int winner;
         String file;
         int agentDiff;
 
-        // deserialize from file
-        System.out.print("Deserializing transpositions...");
-        Agent.deserializeTranspositions(TRANSPOSITIONS_PATH);
-
         // output main menu
         System.out.println("\n  ___                   _     _            \n" +
                 " / _ \\ _   _  ___  _ __(_) __| | ___  _ __ \n" +
@@ -937,6 +935,7 @@ public class Quoridor {
                 switch (mainMenu()) {
                     case 'N':
                         agentDiff = newMenu();
+                        if (p2Agent != null) p2Agent.close();
                         p2Agent = agentDiff == -1 ? null : new Agent(agentDiff);
                         break;
                     case 'L':
@@ -1046,10 +1045,5 @@ public class Quoridor {
                 }
             }
         }
-
-        // serialize to file
-        System.out.print("Serializing tranpositions...");
-        Agent.serializeTranspositions(TRANSPOSITIONS_PATH);
-        System.out.println();
     }
 }
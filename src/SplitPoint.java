@@ -0,0 +1,137 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SplitPoint class
+ * <p>
+ * Represents a position whose moves are being searched by several threads at once in the split (YBWC) search.
+ * It keeps the best move and score found so far, which later moves use as their window. It is cancelled when a move
+ * causes a cutoff (or the budget runs out at the root), and every split point below a cancelled one counts as cancelled,
+ * so the searches under it stop the next time they check.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+class SplitPoint {
+    // declare fields
+    private final SplitPoint parent; // the split point above this one (null at the root)
+    private final LongAdder nodes; // positions searched below the root (shared by every split point under it)
+    private final int beta; // scores at least this high cut the search off
+    private int alpha; // the score the player to move is already sure of
+    private int bestScore = Integer.MIN_VALUE; // the best score reported so far
+    private int bestMove = -1; // the packed move with the best score (-1 if none has been reported)
+    private volatile boolean cancelled; // whether this split point has been cut off or stopped
+
+    /**
+     * SplitPoint constructor
+     * <p>
+     * Constructor for SplitPoint
+     *
+     * @param parent {@code SplitPoint} - The split point above this one (null at the root)
+     * @param alpha {@code int} - The alpha value of the window
+     * @param beta {@code int} - The beta value of the window
+     */
+    SplitPoint(SplitPoint parent, int alpha, int beta) {
+        this.parent = parent;
+        this.nodes = parent == null ? new LongAdder() : parent.nodes;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * report method
+     * <p>
+     * Reports the score of a move, cancelling the split point if it causes a cutoff
+     *
+     * @param move {@code int} - The packed move
+     * @param score {@code int} - The score of the move for the player to move
+     */
+    synchronized void report(int move, int score) {
+        if (score > bestScore) {
+            bestScore = score;
+            bestMove = move;
+            alpha = Math.max(alpha, score);
+
+            if (score >= beta) cancelled = true;
+        }
+    }
+
+    /**
+     * getAlpha method
+     * <p>
+     * Getter for the score the player to move is already sure of
+     *
+     * @return {@code int} - The current alpha value
+     */
+    synchronized int getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * getBestScore method
+     * <p>
+     * Getter for the best score reported
+     *
+     * @return {@code int} - The best score ({@code Integer.MIN_VALUE} if none has been reported)
+     */
+    synchronized int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * getBestMove method
+     * <p>
+     * Getter for the move with the best score
+     *
+     * @return {@code int} - The packed move (-1 if none has been reported)
+     */
+    synchronized int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * cancel method
+     * <p>
+     * Stops the searches under this split point
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * isCancelled method
+     * <p>
+     * Checks if this split point or any split point above it has been cancelled
+     *
+     * @return {@code boolean} - Whether the searches under this split point have to stop
+     */
+    boolean isCancelled() {
+        // declare variables
+        boolean stopped = false;
+
+        for (SplitPoint point = this; point != null && !stopped; point = point.parent) stopped = point.cancelled;
+
+        return stopped;
+    }
+
+    /**
+     * addNodes method
+     * <p>
+     * Adds to the number of positions searched below the root
+     *
+     * @param count {@code long} - The number of positions
+     */
+    void addNodes(long count) {
+        nodes.add(count);
+    }
+
+    /**
+     * countNodes method
+     * <p>
+     * Counts the positions searched below the root
+     *
+     * @return {@code long} - The number of positions
+     */
+    long countNodes() {
+        return nodes.sum();
+    }
+}
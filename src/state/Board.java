@@ -2,6 +2,8 @@ package state;
 
 import state.component.Pawn;
 import state.component.Wall;
+import state.util.BucketQueue;
+import state.util.FieldCache;
 import state.util.MinHeap;
 
 import java.io.Serializable;
@@ -17,55 +19,149 @@ import java.util.*;
  */
 public class Board implements Serializable {
     // constants
-    private static final long serialVersionUID = 1L;
-    private static final int SIZE = 9;
-    private static final int MAX_WALLS = 10;
-    private static final int[] P1_START = {4, 0};
-    private static final int[] P2_START = {4, 8};
+    private static final long serialVersionUID = 3L;
+    private static final int DEFAULT_SIZE = 9;
+    private static final int MIN_SIZE = 3;
+    private static final int MAX_SIZE = 16; // packed actions hold each coordinate in 4 bits
+    private static final int MAX_PAWN_MOVES = 5; // three steps and two diagonal jumps
+    private static final int UNDO_CAPACITY = 64; // initial number of pawn moves the undo stack can hold
+    private static final int ACTION_VERTICAL = 1 << 8; // packed action bit set for vertical walls (x and y take bits 0-3 and 4-7)
+    private static final int ACTION_WALL = 1 << 9; // packed action bit set for wall placements
+    private static final int NORTH = 1; // blocked edge bit for each direction
+    private static final int EAST = 2;
+    private static final int SOUTH = 4;
+    private static final int WEST = 8;
+    private static final int[] DIR_BITS = {NORTH, EAST, SOUTH, WEST};
+    static final long ZOBRIST_SEED = 0x5155_4F52_4944_4F52L; // fixed so keys are stable across runs
+    private static final int[][] SIDE_DIRS = {{1, 3}, {0, 2}, {1, 3}, {0, 2}}; // [dir] the two directions perpendicular to each direction
+
+    // board geometry (fixed when the board is built)
+    private final int size; // side length of the board
+    private final int wallSpan; // number of wall slots along each axis
+    private final int maxWalls; // number of walls each player starts with
+    private final int[] dirSteps; // square index offset of each direction
+    private final long[][] pawnKeys; // [player][square] zobrist keys, shared by every board of this size
+    private final long[][][] wallKeys; // [owner][vertical][slot]
+    private final long sideKey; // toggled when player 2 is to move
+    private final int[][] neighbours; // [square][dir] the next square over (-1 off the board)
 
     // declare variables
-    private transient int[][] squares = new int[9][9];
     private Pawn p1;
     private Pawn p2;
-    private Set<Wall> walls = new HashSet<Wall>();
-    private transient int[] wallsRemaining = new int[2];
+    private int[] pawnSquares = new int[2]; // square index (x + y * size) of each pawn
+    private long[] horizWalls; // bit i (of the words in order) is set if a horizontal wall occupies slot i
+    private long[] vertWalls; // bit i is set if a vertical wall occupies slot i
+    private long[] p2Walls; // bit i is set if the wall in slot i belongs to player 2
+    private byte[] blockedEdges; // blocked direction bits (NORTH/EAST/SOUTH/WEST) of each square
+
+    // search buffers (reused between searches)
+    private int[] searchQueue; // squares in the order they are discovered
+    private int[] searchDist; // distance of each square discovered in the current search
+    private int[] searchStamps; // the search in which each square was last discovered
+    private int[] searchParents; // the square each square was discovered from in the current search
+    private int searchFound; // the goal square reached by the last search
+    private MinHeap searchHeap; // squares waiting to be explored, by estimated path length
+    private int searchStamp; // the id of the current search
+    private BucketQueue wallOrder; // wall slots ordered by the distance of their square
+    private int[] wallSquares; // the square of every wall slot, in the order of the last propagation
+
+    // witness paths: one open path from each pawn to its goal row, used to skip searches for walls which miss it
+    private int[][] witnessSquares; // [player][step] squares of each path, starting at the pawn
+    private int[] witnessLengths = new int[2]; // number of squares in each path (0 if there is none)
+    private boolean[][] witnessEdges; // [player][edge] whether each edge is on the path
+    private long[][] witnessHorizWalls; // [player] the horizontal walls each path was last checked against
+    private long[][] witnessVertWalls; // [player] the vertical walls each path was last checked against
+
+    // goal distance fields, repaired incrementally whenever a wall is added or removed
+    private int[][] goalDist; // [player][square] distance from each square to the goal row
+    private int[] repairQueue; // ring queue of squares waiting to relax their neighbours
+    private boolean[] repairQueued; // whether each square is in the repair queue
+    private int[] repairBuckets; // first candidate square at each distance (-1 if empty)
+    private int[] repairNext; // next candidate square in the same bucket
+    private int[] repairStamps; // the repair in which each square became a candidate
+    private int[] affectedStamps; // the repair in which each square lost its shortest path
+    private int[] affected; // the squares which lost their shortest path
+    private int repairStamp; // the id of the current repair
+    private int repairHead; // the front of the repair queue
+    private int repairTail; // the back of the repair queue
+    private int[] wallEdges = new int[4]; // the two pairs of squares separated by a wall
+
+    // wall legality analysis, cached for the walls and pawn squares it was calculated for
+    private long[] validHorizSlots; // bit i is set if a horizontal wall can be placed in slot i
+    private long[] validVertSlots; // bit i is set if a vertical wall can be placed in slot i
+    private long[] validSlotsHorizWalls; // the horizontal walls the valid slots were calculated for
+    private long[] validSlotsVertWalls; // the vertical walls the valid slots were calculated for
+    private int[] validSlotsPawns = new int[2]; // the pawn squares the valid slots were calculated for
+    private boolean validSlotsReady; // whether the valid slots have been calculated
+    private int[] cutDisc; // preorder index of each node (the last node stands for the goal row)
+    private int[] cutEnd; // last preorder index in the subtree of each node
+    private int[] cutParent; // parent of each node in the search tree
+    private int[] cutNextNeighbour; // the next neighbour to explore from each node
+    private int[] cutStack; // the nodes currently being explored
+    private int[] cutStamps; // the analysis in which each node was discovered
+    private long[] cutLabels; // xor of the labels of the non-tree edges leaving each subtree
+    private long[] backEdgeLabels; // label of each non-tree edge, by square and axis
+    private long cutLabelState = ZOBRIST_SEED; // state of the random label generator
+    private int cutStamp; // the id of the current analysis
+
+    // union-find over wall points (corners between squares), with every border point in one set
+    private int[] pointParents; // parent of each point (roots are their own parent)
+    private int[] pointSizes; // number of points in each root's set
+    private int[] unionHistory; // the root attached by each union (-1 if none)
+    private int[] unionSlots; // the slot of each wall in the order the walls were joined
+    private int unionCount; // the number of walls joined
+    private byte[] wallsRemaining = new byte[2];
     private int current;
+    private long key; // zobrist key of the position, updated incrementally
+    private int[] undoSquares = new int[UNDO_CAPACITY]; // the square each pawn move made by doAction left from, most recent last
+    private int undoCount; // the number of pawn moves on the undo stack
 
     /**
      * state.Board constructor
      * <p>
-     * Constructor for building a new state.Board
+     * Constructor for building a new state.Board of the standard size
      *
      * @param p2Human {@code boolean} - True if player 2 is human, false if player 2 is computer
      */
     public Board(boolean p2Human) {
-        // initialize squares to 0
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                squares[i][j] = 0;
-            }
-        }
+        this(p2Human, DEFAULT_SIZE);
+    }
+
+    /**
+     * state.Board constructor
+     * <p>
+     * Constructor for building a new state.Board of any size.
+     * Each player starts in the middle of their edge with one more wall than the size of the board (10 on the standard board).
+     *
+     * @param p2Human {@code boolean} - True if player 2 is human, false if player 2 is computer
+     * @param size {@code int} - The size of the board (side length, 3 to 16)
+     */
+    public Board(boolean p2Human, int size) {
+        this(size);
 
         // initialize pawns
-        p1 = new Pawn(1, P1_START, true);
-        p2 = new Pawn(2, P2_START, p2Human);
+        p1 = new Pawn(1, new int[]{size / 2, 0}, true, size);
+        p2 = new Pawn(2, new int[]{size / 2, size - 1}, p2Human, size);
 
-        // set walls to 10 each
-        wallsRemaining[0] = MAX_WALLS;
-        wallsRemaining[1] = MAX_WALLS;
+        // set walls to the maximum for each player
+        wallsRemaining[0] = (byte) maxWalls;
+        wallsRemaining[1] = (byte) maxWalls;
 
         // set pawn positions
-        squares[p1.getX()][p1.getY()] = 1;
-        squares[p2.getX()][p2.getY()] = 2;
+        pawnSquares[0] = toSquare(p1.getPos());
+        pawnSquares[1] = toSquare(p2.getPos());
 
         // set current player
         current = 1;
+
+        key = calcKey();
+        buildGoalDists();
     }
 
     /**
      * state.Board constructor for loading a game
      * <p>
-     * Constructor for building a new state.Board from a loaded game
+     * Constructor for building a new state.Board of the standard size from a loaded game
      *
      * @param p1      {@code state.component.Pawn} - Player 1's pawn
      * @param p2      {@code state.component.Pawn} - Player 2's pawn
@@ -73,601 +169,1946 @@ public class Board implements Serializable {
      * @param current {@code int} The current player
      */
     public Board(Pawn p1, Pawn p2, Set<Wall> walls, int current) {
+        this(p1, p2, walls, current, DEFAULT_SIZE);
+    }
+
+    /**
+     * state.Board constructor for loading a game
+     * <p>
+     * Constructor for building a new state.Board of any size from a loaded game
+     *
+     * @param p1      {@code state.component.Pawn} - Player 1's pawn (with goals for the same size)
+     * @param p2      {@code state.component.Pawn} - Player 2's pawn
+     * @param walls   {@code Set<state.component.Wall>}The list of walls on the board
+     * @param current {@code int} The current player
+     * @param size    {@code int} - The size of the board (side length, 3 to 16)
+     */
+    public Board(Pawn p1, Pawn p2, Set<Wall> walls, int current, int size) {
+        this(size);
+
         // declare variables
         int p1WallsPlaced = 0;
         int p2WallsPlaced = 0;
 
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                squares[i][j] = 0;
-            }
-        }
-
         this.p1 = p1.copy();
         this.p2 = p2.copy();
 
-        squares[p1.getX()][p1.getY()] = 1;
-        squares[p2.getX()][p2.getY()] = 2;
+        pawnSquares[0] = toSquare(p1.getPos());
+        pawnSquares[1] = toSquare(p2.getPos());
 
         for (Wall w : walls) {
             if (w.getOwner() == 1) p1WallsPlaced++;
             else p2WallsPlaced++;
-        }
 
-        wallsRemaining[0] = MAX_WALLS - p1WallsPlaced;
-        wallsRemaining[1] = MAX_WALLS - p2WallsPlaced;
+            setWallBits(toSlot(w.getPos()), w.isVertical(), w.getOwner());
+        }
 
-        this.walls = new HashSet<Wall>(walls);
+        wallsRemaining[0] = (byte) (maxWalls - p1WallsPlaced);
+        wallsRemaining[1] = (byte) (maxWalls - p2WallsPlaced);
 
         this.current = current;
+
+        key = calcKey();
+        buildGoalDists();
     }
 
     /**
-     * getSize method
+     * state.Board constructor for an empty board
      * <p>
-     * Getter for the size of the board
+     * Sets up the geometry of a board and allocates every buffer for its size, with no pawns or walls
      *
-     * @return {@code int} - The size of the board (side length)
+     * @param size {@code int} - The size of the board (side length, 3 to 16)
      */
-    public static int getSize() {
-        return SIZE;
+    private Board(int size) {
+        // declare variables
+        BoardTables tables;
+        int squares = size * size;
+        int slots = (size - 1) * (size - 1);
+        int words = (slots + 63) / 64;
+
+        // the size has to fit in the packed actions
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE + ": " + size);
+        }
+
+        tables = BoardTables.forSize(size);
+
+        this.size = size;
+        wallSpan = size - 1;
+        maxWalls = calcMaxWalls(size);
+        dirSteps = new int[]{size, 1, -size, -1};
+        pawnKeys = tables.pawnKeys;
+        wallKeys = tables.wallKeys;
+        sideKey = tables.sideKey;
+        neighbours = tables.neighbours;
+
+        // allocate the wall masks and every buffer for the size
+        horizWalls = new long[words];
+        vertWalls = new long[words];
+        p2Walls = new long[words];
+        blockedEdges = new byte[squares];
+
+        searchQueue = new int[squares];
+        searchDist = new int[squares];
+        searchStamps = new int[squares];
+        searchParents = new int[squares];
+        searchHeap = new MinHeap(squares);
+        wallOrder = new BucketQueue(slots, squares);
+        wallSquares = new int[slots];
+
+        witnessSquares = new int[2][squares];
+        witnessEdges = new boolean[2][squares * 2];
+        witnessHorizWalls = new long[2][words];
+        witnessVertWalls = new long[2][words];
+
+        goalDist = new int[2][squares];
+        repairQueue = new int[squares];
+        repairQueued = new boolean[squares];
+        repairBuckets = new int[squares];
+        repairNext = new int[squares];
+        repairStamps = new int[squares];
+        affectedStamps = new int[squares];
+        affected = new int[squares];
+
+        validHorizSlots = new long[words];
+        validVertSlots = new long[words];
+        validSlotsHorizWalls = new long[words];
+        validSlotsVertWalls = new long[words];
+        cutDisc = new int[squares + 1];
+        cutEnd = new int[squares + 1];
+        cutParent = new int[squares + 1];
+        cutNextNeighbour = new int[squares + 1];
+        cutStack = new int[squares + 1];
+        cutStamps = new int[squares + 1];
+        cutLabels = new long[squares + 1];
+        backEdgeLabels = new long[squares * 2];
+
+        pointParents = new int[(size + 1) * (size + 1)];
+        pointSizes = new int[(size + 1) * (size + 1)];
+        unionHistory = new int[slots * 2];
+        unionSlots = new int[slots];
+
+        initBorderEdges();
+        initPointSets();
     }
 
     /**
-     * getMaxWalls method
+     * state.Board copy constructor
      * <p>
-     * Getter for max walls constant
+     * Constructor for building a deep copy of another state.Board
      *
-     * @return {@code int} - The maximum number of walls each player has
+     * @param other {@code state.Board} - The board to copy
      */
-    public static int getMaxWalls() {
-        return MAX_WALLS;
+    private Board(Board other) {
+        this(other.size);
+
+        p1 = other.p1.copy();
+        p2 = other.p2.copy();
+        pawnSquares = other.pawnSquares.clone();
+        horizWalls = other.horizWalls.clone();
+        vertWalls = other.vertWalls.clone();
+        p2Walls = other.p2Walls.clone();
+        blockedEdges = other.blockedEdges.clone();
+        wallsRemaining = other.wallsRemaining.clone();
+        current = other.current;
+        key = other.key;
+        undoSquares = other.undoSquares.clone();
+        undoCount = other.undoCount;
+        goalDist = new int[][]{other.goalDist[0].clone(), other.goalDist[1].clone()};
+        pointParents = other.pointParents.clone();
+        pointSizes = other.pointSizes.clone();
+        unionHistory = other.unionHistory.clone();
+        unionSlots = other.unionSlots.clone();
+        unionCount = other.unionCount;
     }
 
     /**
-     * getP1 method
+     * toSquare method
      * <p>
-     * Getter for player 1's pawn
+     * Converts a position to its square index
      *
-     * @return {@code state.component.Pawn} - Player 1's pawn
+     * @param pos {@code int[]} - The position to convert
+     * @return {@code int} - The square index (0 to size * size - 1)
      */
-    public Pawn getP1() {
-        return p1;
+    private int toSquare(int[] pos) {
+        return pos[0] + pos[1] * size;
     }
 
     /**
-     * getP2 method
+     * toSlot method
      * <p>
-     * Getter for player 2's pawn
+     * Converts a (validated) wall position to its slot index
      *
-     * @return {@code state.component.Pawn} - Player 2's pawn
+     * @param pos {@code int[]} - The position of the wall
+     * @return {@code int} - The slot index (0 to wallSpan * wallSpan - 1)
      */
-    public Pawn getP2() {
-        return p2;
+    private int toSlot(int[] pos) {
+        return toSlot(pos[0], pos[1]);
     }
 
     /**
-     * getPawn method
+     * toSlot method
      * <p>
-     * Converts an integer id to a {@code state.component.Pawn} object
+     * Converts a (validated) wall position to its slot index
      *
-     * @param id {@code int} The id of the pawn
-     * @return {@code state.component.Pawn} - A pawn object
+     * @param x {@code int} - The x position of the wall
+     * @param y {@code int} - The y position of the wall
+     * @return {@code int} - The slot index (0 to wallSpan * wallSpan - 1)
      */
-    public Pawn getPawn(int id) {
-        Pawn p;
+    private int toSlot(int x, int y) {
+        return x + (y - 1) * wallSpan;
+    }
 
-        if (id == 1) p = p1;
-        else p = p2;
+    /**
+     * hasWall method
+     * <p>
+     * Checks if a wall mask has a wall at the given position (false for positions off the board)
+     *
+     * @param mask {@code long[]} - The horizontal or vertical wall mask
+     * @param x {@code int} - The x position of the wall
+     * @param y {@code int} - The y position of the wall
+     * @return {@code boolean} - Whether the mask has a wall at the position
+     */
+    private boolean hasWall(long[] mask, int x, int y) {
+        return x >= 0 && x < wallSpan && y >= 1 && y <= wallSpan && testBit(mask, x + (y - 1) * wallSpan);
+    }
 
-        return p;
+    /**
+     * testBit method
+     * <p>
+     * Checks if a bit is set in a mask made of 64-bit words (bit i is bit i % 64 of word i / 64)
+     *
+     * @param mask {@code long[]} - The mask
+     * @param bit {@code int} - The bit index
+     * @return {@code boolean} - Whether the bit is set
+     */
+    private static boolean testBit(long[] mask, int bit) {
+        return (mask[bit >>> 6] & (1L << bit)) != 0;
     }
 
     /**
-     * getEnemy method
+     * setBit method
      * <p>
-     * Getter for the opposite player's pawn
+     * Sets a bit in a mask made of 64-bit words
      *
-     * @param self {@code state.component.Pawn} - The player to check
-     * @return {@code state.component.Pawn} - The opposite player
+     * @param mask {@code long[]} - The mask
+     * @param bit {@code int} - The bit index
      */
-    public Pawn getEnemy(Pawn self) {
-        if (self.getId() == 1) return p2;
-        else return p1;
+    private static void setBit(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
     }
 
     /**
-     * getCurrentPawn method
+     * clearBit method
      * <p>
-     * Getter for the currently active pawn
+     * Clears a bit in a mask made of 64-bit words
      *
-     * @return {@code state.component.Pawn} - The current pawn
+     * @param mask {@code long[]} - The mask
+     * @param bit {@code int} - The bit index
      */
-    public Pawn getCurrentPawn() {
-        return getPawn(current);
+    private static void clearBit(long[] mask, int bit) {
+        mask[bit >>> 6] &= ~(1L << bit);
     }
 
     /**
-     * getAllWalls method
+     * setWallBits method
      * <p>
-     * Getter for the set of all walls placed on the current board
+     * Sets the bits for a wall in the wall masks
      *
-     * @return {@code Set<state.component.Wall>} - The set of all walls
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @param owner {@code int} - The id of the owner of the wall
      */
-    public Set<Wall> getAllWalls() {
-        return walls;
+    private void setWallBits(int slot, boolean vertical, int owner) {
+        if (vertical) setBit(vertWalls, slot);
+        else setBit(horizWalls, slot);
+
+        if (owner == 2) setBit(p2Walls, slot);
+
+        key ^= wallKeys[owner - 1][vertical ? 1 : 0][slot];
+
+        toggleEdges(slot, vertical);
+        joinWallPoints(slot, vertical);
     }
 
     /**
-     * getWallsRemaining method
+     * clearWallBits method
      * <p>
-     * Getter for the number of walls remaining
+     * Clears the bits for a wall in the wall masks
      *
-     * @param self {@code state.component.Pawn} - The pawn to check
-     * @return {@code int} - The number of walls remaining for that pawn
+     * @param slot {@code int} - The slot index of the wall
      */
-    public int getWallsRemaining(Pawn self) {
-        return wallsRemaining[self.getId() - 1];
+    private void clearWallBits(int slot) {
+        // remove the wall from the key before clearing its bits
+        key ^= wallKeys[testBit(p2Walls, slot) ? 1 : 0][testBit(vertWalls, slot) ? 1 : 0][slot];
+
+        // unblock the edges of the wall if there is one in the slot
+        if (testBit(vertWalls, slot)) toggleEdges(slot, true);
+        else if (testBit(horizWalls, slot)) toggleEdges(slot, false);
+
+        clearBit(vertWalls, slot);
+        clearBit(horizWalls, slot);
+        clearBit(p2Walls, slot);
+
+        // undo the unions of the wall if it was the last one joined, otherwise rebuild the sets
+        if (unionCount > 0 && unionSlots[unionCount - 1] == slot) splitLastWallPoints();
+        else rebuildPointSets();
     }
 
     /**
-     * getCurrentPlayer method
+     * initPointSets method
      * <p>
-     * Getter for the current player
+     * Resets the union-find so that every border point is in one set and every inner point is alone
+     */
+    private void initPointSets() {
+        // declare variables
+        int x;
+        int y;
+
+        for (int point = 0; point < pointParents.length; point++) {
+            x = point % (size + 1);
+            y = point / (size + 1);
+
+            pointParents[point] = (x == 0 || x == size || y == 0 || y == size) ? 0 : point;
+            pointSizes[point] = 1;
+        }
+
+        pointSizes[0] = 4 * size;
+        unionCount = 0;
+    }
+
+    /**
+     * rebuildPointSets method
+     * <p>
+     * Rebuilds the union-find from the walls on the board
+     */
+    private void rebuildPointSets() {
+        // declare variables
+        long occupied;
+        int slot;
+
+        initPointSets();
+
+        // join the points of every wall again
+        for (int word = 0; word < horizWalls.length; word++) {
+            occupied = horizWalls[word] | vertWalls[word];
+
+            while (occupied != 0) {
+                slot = word * 64 + Long.numberOfTrailingZeros(occupied);
+                occupied &= occupied - 1;
+
+                joinWallPoints(slot, testBit(vertWalls, slot));
+            }
+        }
+    }
+
+    /**
+     * findPointSet method
+     * <p>
+     * Finds the root of the set containing a point (no path compression, so that unions can be undone)
      *
-     * @return {@code int} - The current player (1 or 2)
+     * @param point {@code int} - The point index
+     * @return {@code int} - The root of the point's set
      */
-    public int getCurrentPlayer() {
-        return current;
+    private int findPointSet(int point) {
+        while (pointParents[point] != point) point = pointParents[point];
+
+        return point;
     }
 
     /**
-     * nextPlayer method
+     * calcWallPoint method
      * <p>
-     * Switches the current player to the next player
+     * Gets one of the three points which a wall touches
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @param offset {@code int} - -1 for the west/south end, 0 for the centre, 1 for the east/north end
+     * @return {@code int} - The point index
      */
-    public void nextPlayer() {
-        if (current == 1) current = 2;
-        else if (current == 2) current = 1;
+    private int calcWallPoint(int slot, boolean vertical, int offset) {
+        // the centre of a wall is the corner to the north-east of the square to its south-west
+        int x = slot % wallSpan + 1;
+        int y = slot / wallSpan + 1;
+
+        if (vertical) y += offset;
+        else x += offset;
+
+        return x + y * (size + 1);
     }
 
     /**
-     * prevPlayer method
+     * joinWallPoints method
      * <p>
-     * Switches the current player to the previous player
+     * Joins the sets of the three points which a wall touches and records the unions so they can be undone
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
      */
-    public void prevPlayer() {
-        nextPlayer();
+    private void joinWallPoints(int slot, boolean vertical) {
+        unionHistory[unionCount * 2] = unionPointSets(calcWallPoint(slot, vertical, -1), calcWallPoint(slot, vertical, 0));
+        unionHistory[unionCount * 2 + 1] = unionPointSets(calcWallPoint(slot, vertical, 0), calcWallPoint(slot, vertical, 1));
+        unionSlots[unionCount++] = slot;
     }
 
     /**
-     * sysOut method
+     * unionPointSets method
      * <p>
-     * Prints the board to the console
+     * Joins the sets of two points, attaching the smaller set to the larger
+     *
+     * @param a {@code int} - The first point
+     * @param b {@code int} - The second point
+     * @return {@code int} - The root which was attached, or -1 if the points were already in the same set
      */
-    public void sysOut() {
-        // declare constants
-        final Map<String, String> markings = new HashMap<String, String>();
-        markings.put("columns", "   a   b   c   d   e   f   g   h   i");
-        markings.put("horiz-border", " -------------------------------------");
+    private int unionPointSets(int a, int b) {
+        // declare variables
+        int rootA = findPointSet(a);
+        int rootB = findPointSet(b);
+        int attached = -1;
+
+        if (rootA != rootB) {
+            if (pointSizes[rootA] < pointSizes[rootB]) {
+                attached = rootA;
+                rootA = rootB;
+            } else attached = rootB;
+
+            pointParents[attached] = rootA;
+            pointSizes[rootA] += pointSizes[attached];
+        }
+
+        return attached;
+    }
 
+    /**
+     * splitLastWallPoints method
+     * <p>
+     * Undoes the unions of the last wall joined
+     */
+    private void splitLastWallPoints() {
         // declare variables
-        char[][] display = new char[SIZE * 2 - 1][SIZE * 4 - 3];
-        int row = 9;
+        int attached;
 
-        // fill the array with whitespaces
-        for (int x=0; x<SIZE * 4 - 3; x++) {
-            for (int y=0; y<SIZE * 2 - 1; y++) {
-                display[y][x] = ' ';
+        unionCount--;
+
+        // undo the unions in reverse order
+        for (int i = 1; i >= 0; i--) {
+            attached = unionHistory[unionCount * 2 + i];
+
+            if (attached != -1) {
+                pointSizes[pointParents[attached]] -= pointSizes[attached];
+                pointParents[attached] = attached;
             }
         }
+    }
 
-        // loop over the squares and set the display each board space
-        for (int x=0; x<SIZE; x++) {
-            for (int y=0; y<SIZE; y++) {
-                switch (squares[x][y]) {
-                    case 0:
-                        display[y * 2][x * 4] = '.';
-                        break;
-                    case 1:
-                        display[y * 2][x * 4] = 'O';
-                        break;
-                    case 2:
-                        display[y * 2][x * 4] = 'X';
-                        break;
-                }
+    /**
+     * isClosingLoop method
+     * <p>
+     * Checks if a wall would join two of its points which are already connected by walls or the border.
+     * A wall can only cut the board in two if it closes such a loop.
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @return {@code boolean} - Whether the wall closes a loop
+     */
+    private boolean isClosingLoop(int slot, boolean vertical) {
+        // declare variables
+        int start = findPointSet(calcWallPoint(slot, vertical, -1));
+        int centre = findPointSet(calcWallPoint(slot, vertical, 0));
+        int end = findPointSet(calcWallPoint(slot, vertical, 1));
+
+        return start == centre || centre == end || start == end;
+    }
+
+    /**
+     * initBorderEdges method
+     * <p>
+     * Blocks every edge which leads off the board
+     */
+    private void initBorderEdges() {
+        for (int i = 0; i < size; i++) {
+            blockedEdges[i] |= SOUTH;
+            blockedEdges[i + (size - 1) * size] |= NORTH;
+            blockedEdges[i * size] |= WEST;
+            blockedEdges[i * size + size - 1] |= EAST;
+        }
+    }
+
+    /**
+     * toggleEdges method
+     * <p>
+     * Toggles the four square edges which a wall blocks (walls that can be placed together never share an edge)
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     */
+    private void toggleEdges(int slot, boolean vertical) {
+        // the square to the north-west of the wall's centre (the square named by the wall's position)
+        int square = slot % wallSpan + (slot / wallSpan + 1) * size;
+
+        if (vertical) {
+            // the wall separates the two squares to the west of the centre from the two to the east
+            blockedEdges[square] ^= EAST;
+            blockedEdges[square - size] ^= EAST;
+            blockedEdges[square + 1] ^= WEST;
+            blockedEdges[square + 1 - size] ^= WEST;
+        } else {
+            // the wall separates the two squares to the north of the centre from the two to the south
+            blockedEdges[square] ^= SOUTH;
+            blockedEdges[square + 1] ^= SOUTH;
+            blockedEdges[square - size] ^= NORTH;
+            blockedEdges[square + 1 - size] ^= NORTH;
+        }
+    }
+
+    /**
+     * setPawnSquare method
+     * <p>
+     * Moves a pawn to a square, keeping its square index up to date
+     *
+     * @param self {@code state.component.Pawn} - The pawn to move
+     * @param pos {@code int[]} - The new position of the pawn
+     */
+    private void setPawnSquare(Pawn self, int[] pos) {
+        self.move(pos);
+        updatePawnSquare(self.getId(), toSquare(pos));
+    }
+
+    /**
+     * updatePawnSquare method
+     * <p>
+     * Updates the stored square of a pawn and the zobrist key
+     *
+     * @param id {@code int} - The id of the pawn
+     * @param square {@code int} - The new square index of the pawn
+     */
+    private void updatePawnSquare(int id, int square) {
+        key ^= pawnKeys[id - 1][pawnSquares[id - 1]] ^ pawnKeys[id - 1][square];
+        pawnSquares[id - 1] = square;
+    }
+
+    /**
+     * calcKey method
+     * <p>
+     * Calculates the zobrist key of the position from scratch
+     *
+     * @return {@code long} - The zobrist key
+     */
+    private long calcKey() {
+        // declare variables
+        long newKey = pawnKeys[0][pawnSquares[0]] ^ pawnKeys[1][pawnSquares[1]];
+        long occupied;
+        int slot;
+
+        // add every wall to the key
+        for (int word = 0; word < horizWalls.length; word++) {
+            occupied = horizWalls[word] | vertWalls[word];
+
+            while (occupied != 0) {
+                slot = word * 64 + Long.numberOfTrailingZeros(occupied);
+                occupied &= occupied - 1;
+
+                newKey ^= wallKeys[testBit(p2Walls, slot) ? 1 : 0][testBit(vertWalls, slot) ? 1 : 0][slot];
             }
         }
 
-        // loop over each wall and set the display on the applicable squares
-        for (Wall w: walls) {
-            if (w.isVertical()) {
-                for (int i=0; i<3; i++) {
-                    display[(w.getY() - 1) * 2 + i][w.getX() * 4 + 2] = '|';
-                }
-            }
-            else {
-                for (int i=0; i<5; i++) {
-                    display[(w.getY() - 1) * 2 + 1][w.getX() * 4 + i] = '-';
-                }
-            }
-        }
+        // add the side to move
+        if (current == 2) newKey ^= sideKey;
+
+        return newKey;
+    }
+
+    /**
+     * getSize method
+     * <p>
+     * Getter for the size of the board
+     *
+     * @return {@code int} - The size of the board (side length)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * getMaxWalls method
+     * <p>
+     * Getter for the number of walls each player starts with
+     *
+     * @return {@code int} - The maximum number of walls each player has
+     */
+    public int getMaxWalls() {
+        return maxWalls;
+    }
+
+    /**
+     * getDefaultSize method
+     * <p>
+     * Getter for the size of the standard board
+     *
+     * @return {@code int} - The standard size (side length)
+     */
+    public static int getDefaultSize() {
+        return DEFAULT_SIZE;
+    }
+
+    /**
+     * getMaxSize method
+     * <p>
+     * Getter for the largest size a board can have
+     *
+     * @return {@code int} - The largest size (side length)
+     */
+    public static int getMaxSize() {
+        return MAX_SIZE;
+    }
+
+    /**
+     * calcMaxWalls method
+     * <p>
+     * Calculates the number of walls each player starts with on a board of a given size
+     *
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code int} - The maximum number of walls each player has
+     */
+    public static int calcMaxWalls(int size) {
+        return size + 1;
+    }
+
+    /**
+     * getMaxPawnMoves method
+     * <p>
+     * Getter for the most pawn moves a position can have
+     *
+     * @return {@code int} - The maximum number of pawn moves
+     */
+    public static int getMaxPawnMoves() {
+        return MAX_PAWN_MOVES;
+    }
+
+    /**
+     * encodeMove method
+     * <p>
+     * Packs a pawn move into an action
+     *
+     * @param x {@code int} - The x position to move to
+     * @param y {@code int} - The y position to move to
+     * @return {@code int} - The packed action
+     */
+    public static int encodeMove(int x, int y) {
+        return x | y << 4;
+    }
+
+    /**
+     * encodeWall method
+     * <p>
+     * Packs a wall placement into an action
+     *
+     * @param x {@code int} - The x position of the wall
+     * @param y {@code int} - The y position of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @return {@code int} - The packed action
+     */
+    public static int encodeWall(int x, int y, boolean vertical) {
+        return x | y << 4 | (vertical ? ACTION_VERTICAL : 0) | ACTION_WALL;
+    }
+
+    /**
+     * isWallAction method
+     * <p>
+     * Checks if a packed action is a wall placement
+     *
+     * @param action {@code int} - The packed action
+     * @return {@code boolean} - True for a wall placement, false for a pawn move
+     */
+    public static boolean isWallAction(int action) {
+        return (action & ACTION_WALL) != 0;
+    }
+
+    /**
+     * isVerticalAction method
+     * <p>
+     * Checks if a packed action places a vertical wall
+     *
+     * @param action {@code int} - The packed action
+     * @return {@code boolean} - Whether the wall is vertical (false for pawn moves)
+     */
+    public static boolean isVerticalAction(int action) {
+        return (action & ACTION_VERTICAL) != 0;
+    }
+
+    /**
+     * getActionX method
+     * <p>
+     * Gets the x position of a packed action
+     *
+     * @param action {@code int} - The packed action
+     * @return {@code int} - The x position
+     */
+    public static int getActionX(int action) {
+        return action & 0xF;
+    }
+
+    /**
+     * getActionY method
+     * <p>
+     * Gets the y position of a packed action
+     *
+     * @param action {@code int} - The packed action
+     * @return {@code int} - The y position
+     */
+    public static int getActionY(int action) {
+        return action >> 4 & 0xF;
+    }
+
+    /**
+     * getP1 method
+     * <p>
+     * Getter for player 1's pawn
+     *
+     * @return {@code state.component.Pawn} - Player 1's pawn
+     */
+    public Pawn getP1() {
+        return p1;
+    }
+
+    /**
+     * getP2 method
+     * <p>
+     * Getter for player 2's pawn
+     *
+     * @return {@code state.component.Pawn} - Player 2's pawn
+     */
+    public Pawn getP2() {
+        return p2;
+    }
+
+    /**
+     * getPawn method
+     * <p>
+     * Converts an integer id to a {@code state.component.Pawn} object
+     *
+     * @param id {@code int} The id of the pawn
+     * @return {@code state.component.Pawn} - A pawn object
+     */
+    public Pawn getPawn(int id) {
+        Pawn p;
+
+        if (id == 1) p = p1;
+        else p = p2;
+
+        return p;
+    }
+
+    /**
+     * getEnemy method
+     * <p>
+     * Getter for the opposite player's pawn
+     *
+     * @param self {@code state.component.Pawn} - The player to check
+     * @return {@code state.component.Pawn} - The opposite player
+     */
+    public Pawn getEnemy(Pawn self) {
+        if (self.getId() == 1) return p2;
+        else return p1;
+    }
+
+    /**
+     * getCurrentPawn method
+     * <p>
+     * Getter for the currently active pawn
+     *
+     * @return {@code state.component.Pawn} - The current pawn
+     */
+    public Pawn getCurrentPawn() {
+        return getPawn(current);
+    }
+
+    /**
+     * getAllWalls method
+     * <p>
+     * Getter for the set of all walls placed on the current board (built from the wall masks)
+     *
+     * @return {@code Set<state.component.Wall>} - The set of all walls
+     */
+    public Set<Wall> getAllWalls() {
+        // declare variables
+        Set<Wall> walls = new HashSet<Wall>();
+        long occupied;
+        int slot;
+
+        // loop over every occupied slot
+        for (int word = 0; word < horizWalls.length; word++) {
+            occupied = horizWalls[word] | vertWalls[word];
+
+            while (occupied != 0) {
+                slot = word * 64 + Long.numberOfTrailingZeros(occupied);
+                occupied &= occupied - 1;
+
+                walls.add(new Wall(
+                        testBit(p2Walls, slot) ? 2 : 1,
+                        new int[]{slot % wallSpan, slot / wallSpan + 1},
+                        testBit(vertWalls, slot)
+                ));
+            }
+        }
+
+        return walls;
+    }
+
+    /**
+     * getWallsRemaining method
+     * <p>
+     * Getter for the number of walls remaining
+     *
+     * @param self {@code state.component.Pawn} - The pawn to check
+     * @return {@code int} - The number of walls remaining for that pawn
+     */
+    public int getWallsRemaining(Pawn self) {
+        return wallsRemaining[self.getId() - 1];
+    }
+
+    /**
+     * getKey method
+     * <p>
+     * Getter for the zobrist key of the position (pawn squares, walls and the player to move)
+     *
+     * @return {@code long} - The 64-bit zobrist key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * getCurrentPlayer method
+     * <p>
+     * Getter for the current player
+     *
+     * @return {@code int} - The current player (1 or 2)
+     */
+    public int getCurrentPlayer() {
+        return current;
+    }
+
+    /**
+     * nextPlayer method
+     * <p>
+     * Switches the current player to the next player
+     */
+    public void nextPlayer() {
+        if (current == 1) current = 2;
+        else if (current == 2) current = 1;
+
+        key ^= sideKey;
+    }
+
+    /**
+     * prevPlayer method
+     * <p>
+     * Switches the current player to the previous player
+     */
+    public void prevPlayer() {
+        nextPlayer();
+    }
+
+    /**
+     * sysOut method
+     * <p>
+     * Prints the board to the console
+     */
+    public void sysOut() {
+        // declare constants
+        final Map<String, String> markings = new HashMap<String, String>();
+        final int ROW_WIDTH = String.valueOf(size).length(); // width of the row labels
+        StringBuilder columns = new StringBuilder(" ".repeat(ROW_WIDTH + 2)).append('a');
+
+        for (int x = 1; x < size; x++) columns.append("   ").append((char) ('a' + x));
+
+        markings.put("columns", columns.toString());
+        markings.put("horiz-border", " ".repeat(ROW_WIDTH) + "-".repeat(size * 4 + 1));
+
+        // declare variables
+        char[][] display = new char[size * 2 - 1][size * 4 - 3];
+        int row = size;
+
+        // fill the array with whitespaces
+        for (int x=0; x<size * 4 - 3; x++) {
+            for (int y=0; y<size * 2 - 1; y++) {
+                display[y][x] = ' ';
+            }
+        }
+
+        // loop over the squares and set the display each board space
+        for (int x=0; x<size; x++) {
+            for (int y=0; y<size; y++) {
+                display[y * 2][x * 4] = '.';
+            }
+        }
+
+        // set the display for each pawn
+        display[p1.getY() * 2][p1.getX() * 4] = 'O';
+        display[p2.getY() * 2][p2.getX() * 4] = 'X';
+
+        // loop over each wall and set the display on the applicable squares
+        for (Wall w: getAllWalls()) {
+            if (w.isVertical()) {
+                for (int i=0; i<3; i++) {
+                    display[(w.getY() - 1) * 2 + i][w.getX() * 4 + 2] = '|';
+                }
+            }
+            else {
+                for (int i=0; i<5; i++) {
+                    display[(w.getY() - 1) * 2 + 1][w.getX() * 4 + i] = '-';
+                }
+            }
+        }
+
+        // loop over each valid pawn move for player 1 set the display for each square
+        if (getCurrentPawn().isHuman()) {
+            int[] moves = new int[MAX_PAWN_MOVES];
+            int count = calcPawnMoves(getCurrentPawn(), moves);
+
+            for (int i = 0; i < count; i++) {
+                display[moves[i] / size * 2][moves[i] % size * 4] = '~';
+            }
+        }
+
+        // output the column labels and the border
+        System.out.println("\n" + markings.get("columns"));
+        System.out.println(markings.get("horiz-border"));
+
+        // loop through the row and output each row
+        for (int i=size * 2 - 2; i>=0; i--) {
+            // output the current row if it is not a blank square
+            if (i % 2 == 0) System.out.printf("%" + ROW_WIDTH + "d", row);
+            else System.out.print(" ".repeat(ROW_WIDTH));
+            // output the border
+            System.out.print("| ");
+
+            // output the current square
+            for (char c : display[i]) {
+                System.out.print(c);
+            }
+
+            // output the border
+            System.out.print(" |");
+            // output the current row and decrement the row
+            if (i % 2 == 0) System.out.print(+ row--);
+            System.out.print('\n');
+        }
+
+        // output the column labels and the border
+        System.out.println(markings.get("horiz-border"));
+        System.out.println(markings.get("columns"));
+        System.out.printf("\nWalls Remaining: {O: %d, X: %d}\n", wallsRemaining[0], wallsRemaining[1]);
+    }
+
+    /**
+     * buildGoalDists method
+     * <p>
+     * Builds the goal distance field of both players from scratch using a breadth-first search from each goal row
+     */
+    private void buildGoalDists() {
+        buildGoalDist(goalDist[0], p1.getYGoal());
+        buildGoalDist(goalDist[1], p2.getYGoal());
+    }
+
+    /**
+     * buildGoalDist method
+     * <p>
+     * Builds a goal distance field using a breadth-first search started from every square in the goal row
+     *
+     * @param dist {@code int[]} - The field to fill
+     * @param yGoal {@code int} - The goal row
+     */
+    private void buildGoalDist(int[] dist, int yGoal) {
+        // declare variables
+        int head = 0;
+        int tail = 0;
+        int square;
+        int next;
+
+        Arrays.fill(dist, Integer.MAX_VALUE);
+
+        // add every square in the goal row to the queue
+        for (int x = 0; x < size; x++) {
+            square = x + yGoal * size;
+            dist[square] = 0;
+            searchQueue[tail++] = square;
+        }
+
+        // keep looping until the queue is empty
+        while (head < tail) {
+            square = searchQueue[head++];
+
+            for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                next = square + dirSteps[dir];
+
+                if (!isBlocked(square, DIR_BITS[dir]) && dist[next] == Integer.MAX_VALUE) {
+                    dist[next] = dist[square] + 1;
+                    searchQueue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * addWall method
+     * <p>
+     * Adds a wall to the board and repairs both goal distance fields
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @param owner {@code int} - The id of the owner of the wall
+     */
+    private void addWall(int slot, boolean vertical, int owner) {
+        // declare variables
+        FieldCache cache = FieldCache.forThread(size, horizWalls.length);
+
+        setWallBits(slot, vertical, owner);
+
+        // only repair the fields if the new wall set has not been seen recently on this thread
+        if (!cache.load(horizWalls, vertWalls, goalDist)) {
+            calcWallEdges(slot, vertical);
+            repairBlocked(goalDist[0]);
+            repairBlocked(goalDist[1]);
+            cache.store(horizWalls, vertWalls, goalDist);
+        }
+    }
+
+    /**
+     * removeWall method
+     * <p>
+     * Removes the wall in a slot and repairs both goal distance fields
+     *
+     * @param slot {@code int} - The slot index of the wall
+     */
+    private void removeWall(int slot) {
+        // declare variables
+        FieldCache cache = FieldCache.forThread(size, horizWalls.length);
+
+        calcWallEdges(slot, testBit(vertWalls, slot));
+        clearWallBits(slot);
+
+        // only repair the fields if the new wall set has not been seen recently on this thread
+        if (!cache.load(horizWalls, vertWalls, goalDist)) {
+            repairUnblocked(goalDist[0]);
+            repairUnblocked(goalDist[1]);
+            cache.store(horizWalls, vertWalls, goalDist);
+        }
+    }
+
+    /**
+     * calcWallEdges method
+     * <p>
+     * Stores the two pairs of squares which a wall separates in wallEdges
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     */
+    private void calcWallEdges(int slot, boolean vertical) {
+        // the square to the north-west of the wall's centre
+        int square = slot % wallSpan + (slot / wallSpan + 1) * size;
+
+        wallEdges[0] = square;
+        wallEdges[2] = square - size;
+
+        // vertical walls separate west from east, horizontal walls separate north from south
+        if (vertical) {
+            wallEdges[1] = square + 1;
+            wallEdges[3] = square - size + 1;
+        } else {
+            wallEdges[1] = square - size;
+            wallEdges[2] = square + 1;
+            wallEdges[3] = square - size + 1;
+        }
+    }
+
+    /**
+     * repairUnblocked method
+     * <p>
+     * Repairs a goal distance field after the edges in wallEdges are opened.
+     * Distances can only decrease, so the improvement is relaxed outwards from the opened edges.
+     *
+     * @param dist {@code int[]} - The field to repair
+     */
+    private void repairUnblocked(int[] dist) {
+        for (int square : wallEdges) enqueueRepair(square);
+
+        relaxRepairQueue(dist);
+    }
+
+    /**
+     * repairBlocked method
+     * <p>
+     * Repairs a goal distance field after the edges in wallEdges are cut.
+     * Distances can only increase, and only for squares whose every shortest path used a cut edge.
+     * Those squares are found in order of distance, then their distances are rebuilt from the unaffected squares around them.
+     *
+     * @param dist {@code int[]} - The field to repair
+     */
+    private void repairBlocked(int[] dist) {
+        // declare variables
+        int affectedCount = 0;
+        int maxBucket = 0;
+        int square;
+        int next;
+        int best;
+        boolean supported;
+
+        // start a new repair
+        if (++repairStamp == Integer.MAX_VALUE) {
+            Arrays.fill(repairStamps, 0);
+            Arrays.fill(affectedStamps, 0);
+            repairStamp = 1;
+        }
+
+        Arrays.fill(repairBuckets, -1);
+
+        // a square is a candidate if its shortest path could have used one of the cut edges
+        for (int i = 0; i < wallEdges.length; i += 2) {
+            if (dist[wallEdges[i]] != Integer.MAX_VALUE && dist[wallEdges[i]] == dist[wallEdges[i + 1]] + 1) {
+                maxBucket = Math.max(maxBucket, addRepairCandidate(dist, wallEdges[i]));
+            } else if (dist[wallEdges[i + 1]] != Integer.MAX_VALUE && dist[wallEdges[i + 1]] == dist[wallEdges[i]] + 1) {
+                maxBucket = Math.max(maxBucket, addRepairCandidate(dist, wallEdges[i + 1]));
+            }
+        }
+
+        // process the candidates in order of distance so that closer squares are settled first
+        for (int bucket = 1; bucket <= maxBucket; bucket++) {
+            while (repairBuckets[bucket] != -1) {
+                square = repairBuckets[bucket];
+                repairBuckets[bucket] = repairNext[square];
+
+                // the square keeps its distance if an unaffected neighbour is one step closer to the goal
+                supported = false;
+                for (int dir = 0; dir < DIR_BITS.length && !supported; dir++) {
+                    next = square + dirSteps[dir];
+
+                    if (!isBlocked(square, DIR_BITS[dir]) && dist[next] == dist[square] - 1 &&
+                            affectedStamps[next] != repairStamp) {
+                        supported = true;
+                    }
+                }
+
+                // otherwise the square is affected, and so are the squares which were relying on it
+                if (!supported) {
+                    affectedStamps[square] = repairStamp;
+                    affected[affectedCount++] = square;
+
+                    for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                        next = square + dirSteps[dir];
+
+                        if (!isBlocked(square, DIR_BITS[dir]) && dist[next] == dist[square] + 1 &&
+                                repairStamps[next] != repairStamp) {
+                            maxBucket = Math.max(maxBucket, addRepairCandidate(dist, next));
+                        }
+                    }
+                }
+            }
+        }
+
+        // forget the distances of the affected squares
+        for (int i = 0; i < affectedCount; i++) dist[affected[i]] = Integer.MAX_VALUE;
+
+        // estimate each affected square from its neighbours and relax the estimates
+        for (int i = 0; i < affectedCount; i++) {
+            square = affected[i];
+            best = Integer.MAX_VALUE;
+
+            for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                next = square + dirSteps[dir];
+
+                if (!isBlocked(square, DIR_BITS[dir]) && dist[next] != Integer.MAX_VALUE) {
+                    best = Math.min(best, dist[next] + 1);
+                }
+            }
+
+            if (best != Integer.MAX_VALUE) {
+                dist[square] = best;
+                enqueueRepair(square);
+            }
+        }
+
+        relaxRepairQueue(dist);
+    }
+
+    /**
+     * addRepairCandidate method
+     * <p>
+     * Adds a square to the candidate bucket for its current distance
+     *
+     * @param dist {@code int[]} - The field being repaired
+     * @param square {@code int} - The candidate square
+     * @return {@code int} - The bucket the square was added to
+     */
+    private int addRepairCandidate(int[] dist, int square) {
+        repairStamps[square] = repairStamp;
+        repairNext[square] = repairBuckets[dist[square]];
+        repairBuckets[dist[square]] = square;
+
+        return dist[square];
+    }
+
+    /**
+     * enqueueRepair method
+     * <p>
+     * Adds a square to the repair queue if it is not already waiting in it
+     *
+     * @param square {@code int} - The square to add
+     */
+    private void enqueueRepair(int square) {
+        if (!repairQueued[square]) {
+            repairQueued[square] = true;
+            repairQueue[repairTail] = square;
+            repairTail = (repairTail + 1) % repairQueue.length;
+        }
+    }
+
+    /**
+     * relaxRepairQueue method
+     * <p>
+     * Lowers the distance of every neighbour which can be reached more quickly through a queued square,
+     * until no distance in the field can be improved
+     *
+     * @param dist {@code int[]} - The field being repaired
+     */
+    private void relaxRepairQueue(int[] dist) {
+        // declare variables
+        int square;
+        int next;
+
+        // keep looping until the queue is empty
+        while (repairHead != repairTail) {
+            square = repairQueue[repairHead];
+            repairHead = (repairHead + 1) % repairQueue.length;
+            repairQueued[square] = false;
+
+            if (dist[square] != Integer.MAX_VALUE) {
+                for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                    next = square + dirSteps[dir];
+
+                    if (!isBlocked(square, DIR_BITS[dir]) && dist[square] + 1 < dist[next]) {
+                        dist[next] = dist[square] + 1;
+                        enqueueRepair(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * validatePawnPos method
+     * <p>
+     * Checks if a pawn's position is valid
+     *
+     * @param pos {@code int[]} The position of the pawn
+     * @return {@code boolean} - If the position is valid on the standard board
+     */
+    public static boolean validatePawnPos(int[] pos) {
+        return validatePawnPos(pos, DEFAULT_SIZE);
+    }
+
+    /**
+     * validatePawnPos method
+     * <p>
+     * Checks if a pawn's position is valid on a board of a given size
+     *
+     * @param pos {@code int[]} The position of the pawn
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code boolean} - If the position is valid
+     */
+    public static boolean validatePawnPos(int[] pos, int size) {
+        return (pos[0] >= 0 && pos[0] < size && pos[1] >= 0 && pos[1] < size);
+    }
+
+    /**
+     * calcDistanceToGoal method
+     * <p>
+     * Calculates the distance between the pawn and the goal
+     *
+     * @param self {@code state.component.Pawn} - The pawn that the computer is controlling
+     * @return {@code int} - The distance from the pawn to the opposite side of the board.
+     * Returns {@code Integer.MAX_INT} if the pawn is blocked
+     * from reaching the opposite side of the board.
+     */
+    public int calcDistanceToGoal(Pawn self) {
+        return goalDist[self.getId() - 1][pawnSquares[self.getId() - 1]];
+    }
+
+    /**
+     * searchGoal method
+     * <p>
+     * Runs an A* search from a square towards the goal row, using the number of rows left as the heuristic.
+     * Every step changes the row by at most one, so the heuristic is consistent: a square never needs exploring twice,
+     * a shorter path to a square already in the queue only lowers its key, and the first square in the goal row to leave
+     * the queue is the closest. On an open board the search walks straight to the goal without exploring the rest of it.
+     * The path found is left in searchParents (ending at searchFound).
+     *
+     * @param start {@code int} - The square index to search from
+     * @param yGoal {@code int} - The goal row
+     * @return {@code int} - The length of the shortest path to the goal row, or {@code Integer.MAX_VALUE} if it cannot be reached
+     */
+    int searchGoal(int start, int yGoal) {
+        // declare variables
+        int distance = Integer.MAX_VALUE;
+        int square;
+        int next;
+        int steps;
+
+        // start a new search, clearing the stamps if the counter wraps around
+        if (++searchStamp == Integer.MAX_VALUE) {
+            Arrays.fill(searchStamps, 0);
+            searchStamp = 1;
+        }
+
+        // add the starting square to the queue
+        searchHeap.clear();
+        searchHeap.insert(start, calcSearchPriority(start, 0, yGoal));
+        searchStamps[start] = searchStamp;
+        searchDist[start] = 0;
+        searchParents[start] = -1;
+
+        // keep looping until the queue is empty or the goal row is reached
+        while (!searchHeap.isEmpty() && distance == Integer.MAX_VALUE) {
+            square = searchHeap.extract();
+
+            // stop at the first square in the goal row to leave the queue
+            if (square / size == yGoal) {
+                distance = searchDist[square];
+                searchFound = square;
+            }
+
+            // otherwise discover every unblocked neighbour, or find a shorter path to it
+            else {
+                for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                    next = square + dirSteps[dir];
+                    steps = searchDist[square] + 1;
+
+                    if (!isBlocked(square, DIR_BITS[dir]) && (searchStamps[next] != searchStamp || steps < searchDist[next])) {
+                        searchStamps[next] = searchStamp;
+                        searchDist[next] = steps;
+                        searchParents[next] = square;
+                        searchHeap.insert(next, calcSearchPriority(next, steps, yGoal));
+                    }
+                }
+            }
+        }
+
+        return distance;
+    }
+
+    /**
+     * calcSearchPriority method
+     * <p>
+     * Calculates the key of a square in the search queue (lower is explored first): the length of the shortest path
+     * through the square that could still exist. Ties are broken in favour of the square furthest from the start,
+     * so the search keeps going in a straight line.
+     *
+     * @param square {@code int} - The square index
+     * @param steps {@code int} - The number of steps from the start to the square
+     * @param yGoal {@code int} - The goal row
+     * @return {@code int} - The key of the square
+     */
+    private int calcSearchPriority(int square, int steps, int yGoal) {
+        return (steps + Math.abs(square / size - yGoal)) * size * size - steps;
+    }
+
+    /**
+     * propagateSquares method
+     * <p>
+     * Propagates squares using heuristics to determine the best wall placements.
+     * Every wall position is ordered by the distance of its square from the row in front of the enemy's goal
+     * (positions at the same distance keep column-by-column order).
+     *
+     * The returned array belongs to the board and is overwritten by the next call.
+     *
+     * @param self {@code state.component.Pawn} - The pawn to calculate
+     * @return {@code int[]} - The square index (x + y * size) of every wall position, best first
+     */
+    public int[] propagateSquares(Pawn self) {
+        // declare variables
+        int[] propagation = wallSquares;
+        int goalBlockingY;
+        int head = 0;
+        int tail = 0;
+        int square;
+        int next;
+        int slot;
+
+        // set the goal blocking y value
+        if (self.getId() == 1) goalBlockingY = getEnemy(self).getYGoal() + 1;
+        else goalBlockingY = getEnemy(self).getYGoal();
+
+        // start a new search, clearing the stamps if the counter wraps around
+        if (++searchStamp == Integer.MAX_VALUE) {
+            Arrays.fill(searchStamps, 0);
+            searchStamp = 1;
+        }
+
+        // the squares which place walls to block the goal row start at 0
+        for (int x = 0; x < wallSpan; x++) {
+            square = x + goalBlockingY * size;
+            searchStamps[square] = searchStamp;
+            searchDist[square] = 0;
+            searchQueue[tail++] = square;
+        }
+
+        // spread the distances outwards through every unblocked edge
+        while (head < tail) {
+            square = searchQueue[head++];
+
+            for (int dir = 0; dir < DIR_BITS.length; dir++) {
+                next = square + dirSteps[dir];
+
+                if (!isBlocked(square, DIR_BITS[dir]) && searchStamps[next] != searchStamp) {
+                    searchStamps[next] = searchStamp;
+                    searchDist[next] = searchDist[square] + 1;
+                    searchQueue[tail++] = next;
+                }
+            }
+        }
+
+        // put every wall position in the queue by distance (unreached squares go last)
+        wallOrder.clear();
+
+        for (int x = 0; x < wallSpan; x++) {
+            for (int y = 1; y < size; y++) {
+                square = x + y * size;
+                wallOrder.insert(x + (y - 1) * wallSpan, searchStamps[square] == searchStamp ? searchDist[square] : Integer.MAX_VALUE);
+            }
+        }
+
+        // extract the positions in order
+        for (int i = 0; i < propagation.length; i++) {
+            slot = wallOrder.extract();
+            propagation[i] = slot % wallSpan + (slot / wallSpan + 1) * size;
+        }
+
+        return propagation;
+    }
+
+    /**
+     * validatePawnMove method
+     * <p>
+     * Checks if a pawn move is valid
+     *
+     * @param self {@code state.component.Pawn} - The pawn to check
+     * @param pos {@code int[]} - The position to check
+     * @return {@code boolean} - Whether the pawn move is valid
+     */
+    private boolean validatePawnMove(Pawn self, int[] pos) {
+        // declare variables
+        boolean valid = false;
+        int[] moves = new int[MAX_PAWN_MOVES];
+        int count = calcPawnMoves(self, moves);
+
+        if (validatePawnPos(pos, size)) {
+            for (int i = 0; i < count; i++) if (moves[i] == toSquare(pos)) valid = true;
+        }
+
+        return valid;
+    }
+
+    /**
+     * calcValidPawnMoves method
+     * <p>
+     * Calculates all valid pawn moves
+     *
+     * @param self {@code state.component.Pawn} - The pawn to check
+     * @return {@code Set<List<Integer>>>} - The valid squares a pawn can move to
+     */
+    public Set<List<Integer>> calcValidPawnMoves(Pawn self) {
+        // declare variable
+        Set<List<Integer>> moves = new HashSet<List<Integer>>();
+        int[] squares = new int[MAX_PAWN_MOVES];
+        int count = calcPawnMoves(self, squares);
+
+        for (int i = 0; i < count; i++) moves.add(Arrays.asList(squares[i] % size, squares[i] / size));
+
+        return moves;
+    }
+
+    /**
+     * calcPawnMoves method
+     * <p>
+     * Calculates the squares a pawn can move to, using the neighbour table and the blocked edges of each square.
+     * A pawn steps to any open neighbour. If the other pawn is in the way, it jumps straight over it,
+     * or diagonally around it if there is a wall or the edge of the board behind it.
+     *
+     * @param self {@code state.component.Pawn} - The pawn to check
+     * @param squares {@code int[]} - The array to write the square indices (x + y * size) into (at least getMaxPawnMoves() long)
+     * @return {@code int} - The number of squares written
+     */
+    public int calcPawnMoves(Pawn self, int[] squares) {
+        // declare variables
+        int square = pawnSquares[self.getId() - 1];
+        int other = pawnSquares[2 - self.getId()];
+        int count = 0;
+        int next;
+
+        for (int dir = 0; dir < DIR_BITS.length; dir++) {
+            // blocked edges include the edges of the board, so an open edge always has a neighbour
+            if (!isBlocked(square, DIR_BITS[dir])) {
+                next = neighbours[square][dir];
+
+                if (next != other) squares[count++] = next;
+                else if (!isBlocked(other, DIR_BITS[dir])) squares[count++] = neighbours[other][dir];
+                else {
+                    for (int side : SIDE_DIRS[dir]) {
+                        if (!isBlocked(other, DIR_BITS[side])) squares[count++] = neighbours[other][side];
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * movePawn method
+     * <p>
+     * Moves a given pawn on the board
+     *
+     * @param self {@code state.component.Pawn} - The pawn to move
+     * @param pos  {@code int[]} - The new position of the pawn
+     * @return {@code boolean} - If the move is successful
+     */
+    public boolean movePawn(Pawn self, int[] pos) {
+        // declare variables
+        boolean success = true;
+
+        // check if the new position is a valid move
+        if (validatePawnMove(self, pos)) {
+            self.move(pos);
+            updatePawnSquare(self.getId(), toSquare(pos));
+        } else success = false;
+
+        return success;
+    }
+
+    /**
+     * validateWallPlace method (static)
+     * <p>
+     * Checks if a wall placement is valid on the current walls
+     *
+     * @param wall {@code state.component.Wall} - The wall placement to check
+     * @return {@code boolean} - If the placement is valid on the standard board
+     */
+    public static boolean validateWallPos(Wall wall) {
+        return validateWallPos(wall, DEFAULT_SIZE);
+    }
+
+    /**
+     * validateWallPlace method (static)
+     * <p>
+     * Checks if a wall placement is valid on a board of a given size
+     *
+     * @param wall {@code state.component.Wall} - The wall placement to check
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code boolean} - If the placement is valid
+     */
+    public static boolean validateWallPos(Wall wall, int size) {
+        return isWallPosOnBoard(wall.getPos(), size);
+    }
+
+    /**
+     * isWallPosOnBoard method
+     * <p>
+     * Checks if a wall position is on the board
+     *
+     * @param pos {@code int[]} - The position of the wall
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code boolean} - If the position is on the board
+     */
+    private static boolean isWallPosOnBoard(int[] pos, int size) {
+        return pos[0] >= 0 && pos[0] < size - 1 && pos[1] > 0 && pos[1] < size;
+    }
+
+    /**
+     * isWallConflicting method
+     * <p>
+     * Checks if two walls are conflicting
+     *
+     * @param w1 {@code state.component.Wall} - The first wall
+     * @param w2 {@code state.component.Wall} - The second wall
+     * @return {@code boolean} - If they are conflicting
+     */
+    private static boolean isWallConflicting(Wall w1, Wall w2) {
+        // declare variables
+        boolean valid = false;
+        int x1 = w1.getX();
+        int y1 = w1.getY();
+        int x2 = w2.getX();
+        int y2 = w2.getY();
+        boolean v1 = w1.isVertical();
+        boolean v2 = w2.isVertical();
+
+        if (v1 && v2) {
+            if (x1 == x2 && y1 == y2) valid = true;
+            else if (x1 == x2 && (y1 - y2 == 1 || y2 - y1 == 1)) valid = true;
+        }
+
+        else if (!v1 && !v2) {
+            if (x1 == x2 && y1 == y2) valid = true;
+            else if ((x1 - x2 == 1 || x2 - x1 == 1) && y1 == y2) valid = true;
+        } else {
+            if (x1 == x2 && y1 == y2) valid = true;
+        }
+
+        return valid;
+    }
+
+    /**
+     * isSlotConflicting method
+     * <p>
+     * Checks if a wall in a slot conflicts with any wall already on the board
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @return {@code boolean} - If the wall conflicts with a placed wall
+     */
+    private boolean isSlotConflicting(int slot, boolean vertical) {
+        // declare variables
+        int x = slot % wallSpan;
+        int y = slot / wallSpan + 1;
+        boolean conflicting;
+
+        // a wall of either orientation in the same slot always conflicts
+        if (testBit(horizWalls, slot) || testBit(vertWalls, slot)) conflicting = true;
+
+        // vertical walls overlap with vertical walls directly above or below
+        else if (vertical) conflicting = hasWall(vertWalls, x, y - 1) || hasWall(vertWalls, x, y + 1);
+
+        // horizontal walls overlap with horizontal walls directly beside
+        else conflicting = hasWall(horizWalls, x - 1, y) || hasWall(horizWalls, x + 1, y);
+
+        return conflicting;
+    }
+
+    /**
+     * validateWall method
+     * <p>
+     * Checks if a wall placement is valid given a set of walls
+     *
+     * @param wall {@code state.component.Wall} - The wall placement to check
+     * @param walls {@code Set<state.component.Wall>} - The walls already placed
+     * @return {@code boolean} - If the placement is valid on the standard board
+     */
+    public static boolean validateWall(Wall wall, Set<Wall> walls) {
+        return validateWall(wall, walls, DEFAULT_SIZE);
+    }
+
+    /**
+     * validateWall method
+     * <p>
+     * Checks if a wall placement is valid given a set of walls on a board of a given size
+     *
+     * @param wall {@code state.component.Wall} - The wall placement to check
+     * @param walls {@code Set<state.component.Wall>} - The walls already placed
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code boolean} - If the placement is valid
+     */
+    public static boolean validateWall(Wall wall, Set<Wall> walls, int size) {
+        boolean valid = validateWallPos(wall, size);
+
+        for (Wall w : walls) {
+            if (isWallConflicting(wall, w)) valid = false;
+        }
+
+        return valid;
+    }
+
+    /**
+     * isBlocked method
+     * <p>
+     * Checks if an edge of a square is blocked by a wall or the edge of the board
+     *
+     * @param square {@code int} - The square index
+     * @param dirBit {@code int} - The direction bit (NORTH, EAST, SOUTH or WEST)
+     * @return {@code boolean} - Whether the edge is blocked
+     */
+    private boolean isBlocked(int square, int dirBit) {
+        return (blockedEdges[square] & dirBit) != 0;
+    }
+
+    /**
+     * isWallBlockingPath method
+     * <p>
+     * Checks whether it is possible for a pawn to reach the end of the board if a wall is placed
+     *
+     * @param self {@code state.component.Pawn} - The pawn to check
+     * @param wall {@code state.component.Wall} - The new wall to place
+     * @return {@code boolean} - Whether the wall blocks the pawn's path to the opposite side of the board
+     */
+    public boolean isWallBlockingPath(Pawn self, Wall wall) {
+        // declare variables
+        boolean blocking = false;
+        int slot;
+
+        // a wall which is off the board or conflicts with a placed wall cannot be placed, so it blocks nothing
+        if (validateWallPos(wall, size)) {
+            slot = toSlot(wall.getPos());
 
-        // loop over each valid pawn move for player 1 set the display for each square
-        if (getCurrentPawn().isHuman()) {
-            for (List<Integer> pos : calcValidPawnMoves(getCurrentPawn())) {
-                display[pos.get(1) * 2][pos.get(0) * 4] = '~';
+            // a wall which does not close a loop cannot cut the board in two
+            if (!isSlotConflicting(slot, wall.isVertical()) && isClosingLoop(slot, wall.isVertical())) {
+                blocking = isSlotBlockingPath(slot, wall.isVertical(), self.getId() - 1, self.getYGoal());
             }
         }
 
-        // output the column labels and the border
-        System.out.println("\n" + markings.get("columns"));
-        System.out.println(markings.get("horiz-border"));
+        return blocking;
+    }
 
-        // loop through the row and output each row
-        for (int i=SIZE * 2 - 2; i>=0; i--) {
-            // output the current row if it is not a blank square
-            if (i % 2 == 0) System.out.print(row);
-            else System.out.print(" ");
-            // output the border
-            System.out.print("| ");
+    /**
+     * isSlotBlockingPath method
+     * <p>
+     * Checks whether a pawn can still reach its goal row if a (non-conflicting) wall is placed in a slot.
+     * A wall which misses the pawn's witness path cannot block it, so only walls which cut the path need a search,
+     * and the shortest path found by that search becomes the new witness (short witnesses are crossed by fewer walls).
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @param player {@code int} - The index of the pawn (0 or 1)
+     * @param yGoal {@code int} - The goal row of the pawn
+     * @return {@code boolean} - Whether the wall cuts the pawn off from the goal row
+     */
+    private boolean isSlotBlockingPath(int slot, boolean vertical, int player, int yGoal) {
+        // declare variables
+        boolean blocking = false;
 
-            // output the current square
-            for (char c : display[i]) {
-                System.out.print(c);
-            }
+        updateWitness(player);
 
-            // output the border
-            System.out.print(" |");
-            // output the current row and decrement the row
-            if (i % 2 == 0) System.out.print(+ row--);
-            System.out.print('\n');
+        // without a witness the pawn is already cut off, otherwise only a wall across the witness needs a search
+        if (witnessLengths[player] == 0) blocking = true;
+        else if (isCuttingWitness(player, slot, vertical)) {
+            // temporarily add the new wall to the board (the owner does not matter)
+            setWallBits(slot, vertical, 1);
+
+            blocking = searchGoal(pawnSquares[player], yGoal) == Integer.MAX_VALUE;
+
+            // remove the new wall from the board
+            clearWallBits(slot);
+
+            // the path found around the wall is still open without it
+            if (!blocking) setWitnessFromSearch(player);
         }
 
-        // output the column labels and the border
-        System.out.println(markings.get("horiz-border"));
-        System.out.println(markings.get("columns"));
-        System.out.printf("\nWalls Remaining: {O: %d, X: %d}\n", wallsRemaining[0], wallsRemaining[1]);
+        return blocking;
     }
 
     /**
-     * validatePawnPos method
+     * updateWitness method
      * <p>
-     * Checks if a pawn's position is valid
+     * Makes sure the witness path of a pawn is valid for the current position.
+     * The path is kept if the pawn has not moved and none of the walls added since it was last checked cut it,
+     * otherwise it is rebuilt by walking down the pawn's goal distance field.
      *
-     * @param pos {@code int[]} The position of the pawn
-     * @return {@code boolean} - If the position is valid
+     * @param player {@code int} - The index of the pawn (0 or 1)
      */
-    public static boolean validatePawnPos(int[] pos) {
-        return (pos[0] >= 0 && pos[0] < SIZE && pos[1] >= 0 && pos[1] < SIZE);
-    }
-
-    /**
-     * calcNewPos method
-     * <p>
-     * Calculates a position given an old position and a direction
-     *
-     * @param pos {@code int[]} - The old position
-     * @param dir {@code char} - The direction
-     * @return {@code int[]} - The calculated position
-     */
-    private static int[] calcNewPos(int[] pos, char dir) {
-        // new position
-        int[] newPos = new int[2];
-
-        // switch-case using the direction
-        switch (dir) {
-            case 'N':
-                newPos[0] = pos[0];
-                newPos[1] = pos[1] + 1;
-                break;
-            case 'E':
-                newPos[0] = pos[0] + 1;
-                newPos[1] = pos[1];
-                break;
-            case 'S':
-                newPos[0] = pos[0];
-                newPos[1] = pos[1] - 1;
-                break;
-            case 'W':
-                newPos[0] = pos[0] - 1;
-                newPos[1] = pos[1];
-                break;
+    private void updateWitness(int player) {
+        // declare variables
+        long added;
+        int slot;
+        boolean valid = witnessLengths[player] > 0 && witnessSquares[player][0] == pawnSquares[player];
+
+        // only walls added since the last check can cut the path (removed walls leave it open)
+        for (int word = 0; word < horizWalls.length && valid; word++) {
+            added = (horizWalls[word] & ~witnessHorizWalls[player][word]) | (vertWalls[word] & ~witnessVertWalls[player][word]);
+
+            while (valid && added != 0) {
+                slot = word * 64 + Long.numberOfTrailingZeros(added);
+                added &= added - 1;
+                valid = !isCuttingWitness(player, slot, testBit(vertWalls, slot));
+            }
         }
 
-        return newPos;
+        if (!valid) buildWitness(player);
+
+        System.arraycopy(horizWalls, 0, witnessHorizWalls[player], 0, horizWalls.length);
+        System.arraycopy(vertWalls, 0, witnessVertWalls[player], 0, vertWalls.length);
     }
 
     /**
-     * calcDistanceToGoal method
+     * buildWitness method
      * <p>
-     * Calculates the distance between the pawn and the goal
+     * Rebuilds the witness path of a pawn by stepping to a neighbour one square closer to the goal row until it is reached
      *
-     * @param self {@code state.component.Pawn} - The pawn that the computer is controlling
-     * @return {@code int} - The distance from the pawn to the opposite side of the board.
-     * Returns {@code Integer.MAX_INT} if the pawn is blocked
-     * from reaching the opposite side of the board.
+     * @param player {@code int} - The index of the pawn (0 or 1)
      */
-    public int calcDistanceToGoal(Pawn self) {
+    private void buildWitness(int player) {
         // declare variables
-        int[][] dijkstra = new int[SIZE][SIZE];
-        List<List<Integer>> queue = new ArrayList<List<Integer>>();
-        Set<List<Integer>> visited = new HashSet<List<Integer>>();
-        List<Integer> curr;
-        int min = Integer.MAX_VALUE;
-        Set<Character> dirs = new HashSet<Character>();
-        dirs.add('N');
-        dirs.add('E');
-        dirs.add('S');
-        dirs.add('W');
-        int[] nextPos;
-        List<Integer> nextPosList;
-
-        // initialize every square to infinity
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                dijkstra[i][j] = Integer.MAX_VALUE;
-            }
-        }
+        int[] dist = goalDist[player];
+        int square = pawnSquares[player];
+        int next;
+        int length = 0;
 
-        // initialize the starting square to 0
-        dijkstra[self.getX()][self.getY()] = 0;
+        clearWitness(player);
 
-        // check if the state.component.Pawn is already at the goal
-        if (self.getY() == self.getYGoal()) min = 0;
+        // a pawn which cannot reach its goal has no witness
+        if (dist[square] != Integer.MAX_VALUE) {
+            witnessSquares[player][length++] = square;
 
-        else {
-            // add the starting square to the queue
-            nextPosList = new ArrayList<Integer>();
-            nextPosList.add(self.getX());
-            nextPosList.add(self.getY());
-
-            queue.add(nextPosList);
-
-            // keep looping until the queue is empty
-            while (!queue.isEmpty()) {
-                // get the next position
-                curr = queue.remove(0);
-                // add it to the visited array
-                visited.add(curr);
-
-                // test every direction the pawn can move in
-                for (char dir : dirs) {
-                    nextPos = calcNewPos(new int[]{curr.get(0), curr.get(1)}, dir);
-
-                    nextPosList = new ArrayList<Integer>();
-                    nextPosList.add(nextPos[0]);
-                    nextPosList.add(nextPos[1]);
-
-                    // if the new position is valid and there is no wall blocking the path
-                    if (validatePawnPos(nextPos) &&
-                            !isAnyWallBlocking(new int[]{curr.get(0), curr.get(1)}, dir) &&
-                            !visited.contains(nextPosList)) {
-                        queue.add(nextPosList);
-
-                        // set the distance to the new square to the distance to the current square + 1 (if it is lower)
-                        dijkstra[nextPos[0]][nextPos[1]] = Math.min(dijkstra[nextPos[0]][nextPos[1]], dijkstra[curr.get(0)][curr.get(1)] + 1);
+            while (dist[square] != 0) {
+                next = square;
+
+                for (int dir = 0; dir < DIR_BITS.length && next == square; dir++) {
+                    if (!isBlocked(square, DIR_BITS[dir]) && dist[square + dirSteps[dir]] == dist[square] - 1) {
+                        next = square + dirSteps[dir];
                     }
                 }
+
+                witnessEdges[player][calcEdgeIndex(square, next)] = true;
+                witnessSquares[player][length++] = next;
+                square = next;
             }
         }
 
-        // find the minimum distance to the goal
-        for (int i = 0; i < SIZE; i++) min = Math.min(min, dijkstra[i][self.getYGoal()]);
-
-        return min;
+        witnessLengths[player] = length;
     }
 
     /**
-     * propagateSquares method
+     * setWitnessFromSearch method
      * <p>
-     * Propagates squares using heuristics to determine the best wall placements
+     * Replaces the witness path of a pawn with the path found by the last successful search from its square
      *
-     * @param self {@code state.component.Pawn} - The pawn to calculate
+     * @param player {@code int} - The index of the pawn (0 or 1)
      */
-    public List<List<Integer>> propagateSquares(Pawn self) {
+    private void setWitnessFromSearch(int player) {
         // declare variables
-        int[][] dijkstra = new int[SIZE][SIZE];
-        List<List<Integer>> queue = new ArrayList<List<Integer>>();
-        Set<List<Integer>> visited = new HashSet<List<Integer>>();
-        List<Integer> curr;
-        Set<Character> dirs = new HashSet<Character>();
-        dirs.add('N');
-        dirs.add('E');
-        dirs.add('S');
-        dirs.add('W');
-        int[] nextPos;
-        List<Integer> nextPosList;
-        int goalBlockingY;
-
-        // set the goal blocking y value
-        if (self.getId() == 1) goalBlockingY = getEnemy(self).getYGoal() + 1;
-        else goalBlockingY = getEnemy(self).getYGoal();
-
-        // initialize priority queue
-        MinHeap pq = new MinHeap(64);
-
-        // stores an ArrayList of every square in the board ordered by distance from the goal
-        List<List<Integer>> propagation = new ArrayList<List<Integer>>();
-
-        // initialize every square to infinity and initialize ArrayLists
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                // initialize the squares which place walls to block the goal row to 0
-                if (i < SIZE - 1 && j == goalBlockingY) {
-                    dijkstra[i][j] = 0;
-
-                    // add this square to the queue
-                    nextPosList = new ArrayList<Integer>();
-                    nextPosList.add(i);
-                    nextPosList.add(j);
+        int square = searchFound;
+        int length = searchDist[searchFound] + 1;
 
-                    queue.add(nextPosList);
-                }
+        clearWitness(player);
 
-                // otherwise set it to Integer.MAX_VALUE
-                else dijkstra[i][j] = Integer.MAX_VALUE;
-            }
+        // follow the parents back from the goal square, filling the path from its end
+        for (int step = length - 1; step >= 0; step--) {
+            witnessSquares[player][step] = square;
+            if (step > 0) witnessEdges[player][calcEdgeIndex(square, searchParents[square])] = true;
+            square = searchParents[square];
         }
 
-        // keep looping until the queue is empty
-        while (!queue.isEmpty()) {
-            // get the next position
-            curr = queue.remove(0);
-
-            // add it to the visited array
-            visited.add(curr);
-
-            // test every direction the pawn can move in
-            for (char dir : dirs) {
-                nextPos = calcNewPos(new int[]{curr.get(0), curr.get(1)}, dir);
-
-                nextPosList = new ArrayList<Integer>();
-                nextPosList.add(nextPos[0]);
-                nextPosList.add(nextPos[1]);
-
-                // if the new position is valid and there is no wall blocking the path
-                if (validatePawnPos(nextPos) &&
-                        !isAnyWallBlocking(new int[]{curr.get(0), curr.get(1)}, dir) &&
-                        !visited.contains(nextPosList)) {
-                    // add the next position to the queue
-                    queue.add(nextPosList);
-
-                    // set the distance to the new square to the distance to the current square + 1 (if it is lower)
-                    dijkstra[nextPos[0]][nextPos[1]] = Math.min(dijkstra[nextPos[0]][nextPos[1]], dijkstra[curr.get(0)][curr.get(1)] + 1);
-                }
-            }
-        }
+        witnessLengths[player] = length;
+        System.arraycopy(horizWalls, 0, witnessHorizWalls[player], 0, horizWalls.length);
+        System.arraycopy(vertWalls, 0, witnessVertWalls[player], 0, vertWalls.length);
+    }
 
-        // propagate the dijkstra array into the priority queue for valid wall squares
-        for (int i = 0; i < SIZE - 1; i++) {
-            for (int j = 1; j < SIZE; j++) {
-                pq.insert(new int[]{i, j}, dijkstra[i][j]);
-            }
+    /**
+     * clearWitness method
+     * <p>
+     * Removes the edges of a pawn's witness path from its edge table
+     *
+     * @param player {@code int} - The index of the pawn (0 or 1)
+     */
+    private void clearWitness(int player) {
+        for (int step = 1; step < witnessLengths[player]; step++) {
+            witnessEdges[player][calcEdgeIndex(witnessSquares[player][step - 1], witnessSquares[player][step])] = false;
         }
 
-        // extract first the position
-        nextPos = pq.extract();
-
-        // extract from priority queue into propagation
-        while (!Arrays.equals(nextPos, new int[]{-1, -1})) {
-            // add the next position to the propagation
-            nextPosList = new ArrayList<Integer>();
-            nextPosList.add(nextPos[0]);
-            nextPosList.add(nextPos[1]);
-
-            // add the next position to the propagation
-            propagation.add(nextPosList);
+        witnessLengths[player] = 0;
+    }
 
-            // extract the next position
-            nextPos = pq.extract();
-        }
+    /**
+     * isCuttingWitness method
+     * <p>
+     * Checks if a wall in a slot would block an edge of a pawn's witness path
+     *
+     * @param player {@code int} - The index of the pawn (0 or 1)
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @return {@code boolean} - Whether the wall cuts the witness path
+     */
+    private boolean isCuttingWitness(int player, int slot, boolean vertical) {
+        calcWallEdges(slot, vertical);
 
-        return propagation;
+        return witnessEdges[player][calcEdgeIndex(wallEdges[0], wallEdges[1])]
+                || witnessEdges[player][calcEdgeIndex(wallEdges[2], wallEdges[3])];
     }
 
     /**
-     * validatePawnMove method
+     * validateWallPlace method
      * <p>
-     * Checks if a pawn move is valid
+     * Checks if a wall placement is valid on the current board
      *
-     * @param self {@code state.component.Pawn} - The pawn to check
-     * @param pos {@code int[]} - The position to check
-     * @return {@code boolean} - Whether the pawn move is valid
+     * @param owner    {@code state.component.Pawn} - The owner of the wall
+     * @param pos      {@code int[]} - The position of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @return {@code boolean} - If the placement is valid
      */
-    private boolean validatePawnMove(Pawn self, int[] pos) {
+    public boolean validateWallPlace(Pawn owner, int[] pos, boolean vertical) {
         // declare variables
+        int slot;
         boolean valid = false;
-        List<Integer> posList = new ArrayList<Integer>();
 
-        posList.add(pos[0]);
-        posList.add(pos[1]);
+        // check if the owner has any walls left and that the wall is on the board
+        if (wallsRemaining[owner.getId() - 1] > 0 && isWallPosOnBoard(pos, size)) {
+            slot = toSlot(pos);
 
-        Set<List<Integer>> validMoves = calcValidPawnMoves(self);
+            // recalculate every valid slot at once if the walls or pawns have changed since the last check
+            if (!isValidSlotsCurrent()) calcValidSlots();
 
-        for (List<Integer> move : validMoves) if (move.equals(posList)) valid = true;
+            valid = testBit(vertical ? validVertSlots : validHorizSlots, slot);
+        }
 
         return valid;
     }
 
     /**
-     * calcValidPawnMoves method
+     * isValidSlotsCurrent method
      * <p>
-     * Calculates all valid pawn moves
+     * Checks if the valid slots were calculated for the current walls and pawn squares
+     * (compared directly rather than by key, so a key collision cannot reuse the wrong slots)
      *
-     * @param self {@code state.component.Pawn} - The pawn to check
-     * @return {@code Set<List<Integer>>>} - The valid squares a pawn can move to
+     * @return {@code boolean} - Whether the valid slots can be reused
      */
-    public Set<List<Integer>> calcValidPawnMoves(Pawn self) {
-        // declare variable
-        Pawn other;
-        Set<List<Integer>> moves = new HashSet<List<Integer>>();
-        Set<Character> dirs = new HashSet<Character>();
-        dirs.add('N');
-        dirs.add('E');
-        dirs.add('S');
-        dirs.add('W');
-        List<Integer> newPos;
-        char[] jumpChecks = new char[2];
-
-        // set the pawns
-        if (self.getId() == 1) other = p2;
-        else other = p1;
-
-        // check each direction
-        for (char dir : dirs) {
-            if (!isAnyWallBlocking(self.getPos(), dir)) {
-                // check if the new direction is not occupied by a pawn, and that it is a valid position
-                if (!Arrays.equals(calcNewPos(self.getPos(), dir), other.getPos()) &&
-                        validatePawnPos(calcNewPos(self.getPos(), dir))) {
-                    // calculate the new position
-                    newPos = new ArrayList<Integer>();
-                    newPos.add(calcNewPos(self.getPos(), dir)[0]);
-                    newPos.add(calcNewPos(self.getPos(), dir)[1]);
-
-                    // add to moves
-                    moves.add(newPos);
-                }
+    private boolean isValidSlotsCurrent() {
+        return validSlotsReady && validSlotsPawns[0] == pawnSquares[0] && validSlotsPawns[1] == pawnSquares[1]
+                && Arrays.equals(validSlotsHorizWalls, horizWalls) && Arrays.equals(validSlotsVertWalls, vertWalls);
+    }
 
-                // check if the other pawn is at the same position
-                else if (Arrays.equals(calcNewPos(self.getPos(), dir), other.getPos())) {
-                    // check if there are no walls blocking the direction and it is a valid position
-                    if (!isAnyWallBlocking(other.getPos(), dir) &&
-                            validatePawnPos(calcNewPos(other.getPos(), dir))) {
-                        // calculate the new position
-                        newPos = new ArrayList<Integer>();
-                        newPos.add(calcNewPos(other.getPos(), dir)[0]);
-                        newPos.add(calcNewPos(other.getPos(), dir)[1]);
-
-                        // add to moves
-                        moves.add(newPos);
-                    } else {
-                        // new jumps to check
-                        switch (dir) {
-                            case 'N':
-                            case 'S':
-                                jumpChecks[0] = 'E';
-                                jumpChecks[1] = 'W';
-                                break;
-                            case 'E':
-                            case 'W':
-                                jumpChecks[0] = 'N';
-                                jumpChecks[1] = 'S';
-                                break;
-                        }
+    /**
+     * calcValidSlots method
+     * <p>
+     * Calculates every wall slot in which a wall can be placed in one pass (the same for both players).
+     * A wall has to leave both pawns a path to their goal rows. Walls which do not close a loop or which miss a pawn's
+     * witness path cannot cut that pawn off. For the rest, a single search from the pawn's goal row finds the edges whose
+     * removal would cut it off (bridges, and pairs of edges which are only crossed by the same cycles), and every slot is
+     * then checked against them.
+     */
+    private void calcValidSlots() {
+        // declare variables
+        boolean analysed;
+        boolean vertical;
+        boolean valid;
+
+        Arrays.fill(validHorizSlots, 0);
+        Arrays.fill(validVertSlots, 0);
+
+        // if either pawn cannot reach its goal, no wall can be placed
+        if (goalDist[0][pawnSquares[0]] != Integer.MAX_VALUE && goalDist[1][pawnSquares[1]] != Integer.MAX_VALUE) {
+            // every slot which does not conflict with a placed wall starts out valid
+            for (int slot = 0; slot < wallSpan * wallSpan; slot++) {
+                if (!isSlotConflicting(slot, true)) setBit(validVertSlots, slot);
+                if (!isSlotConflicting(slot, false)) setBit(validHorizSlots, slot);
+            }
+
+            // then each pawn rules out the walls which would cut it off
+            for (Pawn pawn : new Pawn[]{p1, p2}) {
+                analysed = false;
+                updateWitness(pawn.getId() - 1);
+
+                for (int slot = 0; slot < wallSpan * wallSpan; slot++) {
+                    for (int orientation = 0; orientation < 2; orientation++) {
+                        vertical = orientation == 1;
+                        valid = testBit(vertical ? validVertSlots : validHorizSlots, slot);
+
+                        // only walls which close a loop and cross the witness path can cut the pawn off, so only they need the cut analysis
+                        if (valid && isClosingLoop(slot, vertical) && isCuttingWitness(pawn.getId() - 1, slot, vertical)) {
+                            if (!analysed) {
+                                runCutAnalysis(pawn.getYGoal());
+                                analysed = true;
+                            }
 
-                        //iterate over jump checks
-                        for (char jumpDir : jumpChecks) {
-                            // check if there are no walls blocking the direction and it is a valid position
-                            if (!isAnyWallBlocking(other.getPos(), jumpDir) &&
-                                    validatePawnPos(calcNewPos(other.getPos(), jumpDir))) {
-                                // calculate the new position
-                                newPos = new ArrayList<Integer>();
-                                newPos.add(calcNewPos(other.getPos(), jumpDir)[0]);
-                                newPos.add(calcNewPos(other.getPos(), jumpDir)[1]);
-
-                                // add to jumps
-                                moves.add(newPos);
+                            if (isCutSlot(slot, vertical, pawn.getId() - 1, pawn.getYGoal())) {
+                                clearBit(vertical ? validVertSlots : validHorizSlots, slot);
                             }
                         }
                     }
@@ -675,160 +2116,228 @@ public class Board implements Serializable {
             }
         }
 
-        return moves;
+        System.arraycopy(horizWalls, 0, validSlotsHorizWalls, 0, horizWalls.length);
+        System.arraycopy(vertWalls, 0, validSlotsVertWalls, 0, vertWalls.length);
+        validSlotsPawns[0] = pawnSquares[0];
+        validSlotsPawns[1] = pawnSquares[1];
+        validSlotsReady = true;
     }
 
     /**
-     * movePawn method
+     * runCutAnalysis method
      * <p>
-     * Moves a given pawn on the board
+     * Runs a depth-first search from the goal row (treated as a single node connected to every square in the row).
+     * Every non-tree edge gets a random label and every tree edge gets the xor of the labels of the non-tree edges
+     * which cross it. A tree edge labelled 0 is a bridge, and two edges with the same label cut the board together.
      *
-     * @param self {@code state.component.Pawn} - The pawn to move
-     * @param pos  {@code int[]} - The new position of the pawn
-     * @return {@code boolean} - If the move is successful
+     * @param yGoal {@code int} - The goal row
      */
-    public boolean movePawn(Pawn self, int[] pos) {
+    private void runCutAnalysis(int yGoal) {
         // declare variables
-        boolean success = true;
+        final int ROOT = size * size;
+        int stackSize = 0;
+        int counter = 0;
+        int node;
+        int next;
+        long label;
+
+        // start a new analysis
+        if (++cutStamp == Integer.MAX_VALUE) {
+            Arrays.fill(cutStamps, 0);
+            cutStamp = 1;
+        }
 
-        // check if the new position is a valid move
-        if (validatePawnMove(self, pos)) {
-            squares[self.getX()][self.getY()] = 0;
-            self.move(pos);
-            squares[pos[0]][pos[1]] = self.getId();
-        } else success = false;
+        // add the root to the stack
+        cutStamps[ROOT] = cutStamp;
+        cutDisc[ROOT] = counter++;
+        cutParent[ROOT] = -1;
+        cutNextNeighbour[ROOT] = 0;
+        cutLabels[ROOT] = 0;
+        cutStack[stackSize++] = ROOT;
+
+        // keep looping until every reachable node has been explored
+        while (stackSize > 0) {
+            node = cutStack[stackSize - 1];
+            next = calcCutNeighbour(node, cutNextNeighbour[node]++, yGoal);
+
+            // the node has no neighbours left: pass its label up to its parent
+            if (next == -2) {
+                stackSize--;
+                cutEnd[node] = counter - 1;
+                if (cutParent[node] != -1) cutLabels[cutParent[node]] ^= cutLabels[node];
+            }
 
-        return success;
+            // discover a new node through a tree edge
+            else if (next != -1 && cutStamps[next] != cutStamp) {
+                cutStamps[next] = cutStamp;
+                cutDisc[next] = counter++;
+                cutParent[next] = node;
+                cutNextNeighbour[next] = 0;
+                cutLabels[next] = 0;
+                cutStack[stackSize++] = next;
+            }
+
+            // label a non-tree edge leading back to an ancestor
+            else if (next != -1 && next != cutParent[node] && cutDisc[next] < cutDisc[node]) {
+                // xorshift random label
+                cutLabelState ^= cutLabelState << 13;
+                cutLabelState ^= cutLabelState >>> 7;
+                cutLabelState ^= cutLabelState << 17;
+                label = cutLabelState;
+
+                cutLabels[node] ^= label;
+                cutLabels[next] ^= label;
+                if (next != ROOT) backEdgeLabels[calcEdgeIndex(node, next)] = label;
+            }
+        }
     }
 
     /**
-     * validateWallPlace method (static)
+     * calcCutNeighbour method
      * <p>
-     * Checks if a wall placement is valid on the current walls
+     * Gets a neighbour of a node in the cut analysis graph
      *
-     * @param wall {@code state.component.Wall} - The wall placement to check
-     * @return {@code boolean} - If the placement is valid
+     * @param node {@code int} - The node (a square index, or size * size for the goal row)
+     * @param i {@code int} - The index of the neighbour
+     * @param yGoal {@code int} - The goal row
+     * @return {@code int} - The neighbour, -1 if there is no neighbour at this index, or -2 if there are no more neighbours
      */
-    public static boolean validateWallPos(Wall wall) {
+    private int calcCutNeighbour(int node, int i, int yGoal) {
         // declare variables
-        boolean valid = true;
+        int next = -2;
 
-        // check if the wall is out of bounds
-        if (wall.getX() < 0 || wall.getX() >= SIZE - 1 ||
-                wall.getY() <= 0 || wall.getY() >= SIZE) {
-            valid = false;
+        // the goal row is connected to every square in the row
+        if (node == size * size) {
+            if (i < size) next = i + yGoal * size;
         }
 
-        return valid;
+        // squares are connected to their unblocked neighbours
+        else if (i < DIR_BITS.length) {
+            next = isBlocked(node, DIR_BITS[i]) ? -1 : node + dirSteps[i];
+        }
+
+        // squares in the goal row are also connected to the goal row
+        else if (i == DIR_BITS.length) {
+            next = node / size == yGoal ? size * size : -1;
+        }
+
+        return next;
     }
 
     /**
-     * isWallConflicting method
+     * calcEdgeIndex method
      * <p>
-     * Checks if two walls are conflicting
+     * Gets the index of the edge between two adjacent squares
      *
-     * @param w1 {@code state.component.Wall} - The first wall
-     * @param w2 {@code state.component.Wall} - The second wall
-     * @return {@code boolean} - If they are conflicting
+     * @param a {@code int} - The first square
+     * @param b {@code int} - The second square
+     * @return {@code int} - The index of the edge
      */
-    private static boolean isWallConflicting(Wall w1, Wall w2) {
-        // declare variables
-        boolean valid = false;
-        int x1 = w1.getX();
-        int y1 = w1.getY();
-        int x2 = w2.getX();
-        int y2 = w2.getY();
-        boolean v1 = w1.isVertical();
-        boolean v2 = w2.isVertical();
-
-        if (v1 && v2) {
-            if (x1 == x2 && y1 == y2) valid = true;
-            else if (x1 == x2 && (y1 - y2 == 1 || y2 - y1 == 1)) valid = true;
-        }
-
-        else if (!v1 && !v2) {
-            if (x1 == x2 && y1 == y2) valid = true;
-            else if ((x1 - x2 == 1 || x2 - x1 == 1) && y1 == y2) valid = true;
-        } else {
-            if (x1 == x2 && y1 == y2) valid = true;
-        }
-
-        return valid;
+    private static int calcEdgeIndex(int a, int b) {
+        return Math.min(a, b) * 2 + (Math.abs(a - b) == 1 ? 0 : 1);
     }
 
-    public static boolean validateWall(Wall wall, Set<Wall> walls) {
-        boolean valid = validateWallPos(wall);
-
-        for (Wall w : walls) {
-            if (isWallConflicting(wall, w)) valid = false;
+    /**
+     * isCutSlot method
+     * <p>
+     * Checks if a wall in a slot would cut a pawn off from its goal row, using the last cut analysis.
+     * Suspected cuts are confirmed with a search (labels are random, so equal labels are very likely but not certain to be a cut).
+     *
+     * @param slot {@code int} - The slot index of the wall
+     * @param vertical {@code boolean} - Whether the wall is vertical
+     * @param player {@code int} - The index of the pawn (0 or 1)
+     * @param yGoal {@code int} - The goal row of the pawn
+     * @return {@code boolean} - Whether the wall cuts the pawn off from its goal row
+     */
+    private boolean isCutSlot(int slot, boolean vertical, int player, int yGoal) {
+        // declare variables
+        int target = pawnSquares[player];
+        int child1;
+        int child2;
+        long label1;
+        long label2;
+        boolean suspect = false;
+
+        calcWallEdges(slot, vertical);
+
+        // find the subtree below each edge (-1 for non-tree edges) and its label
+        child1 = calcTreeChild(wallEdges[0], wallEdges[1]);
+        child2 = calcTreeChild(wallEdges[2], wallEdges[3]);
+        label1 = calcCutLabel(child1, wallEdges[0], wallEdges[1]);
+        label2 = calcCutLabel(child2, wallEdges[2], wallEdges[3]);
+
+        // a bridge cuts off every square below it
+        if (child1 != -1 && label1 == 0 && isInSubtree(target, child1)) suspect = true;
+        if (child2 != -1 && label2 == 0 && isInSubtree(target, child2)) suspect = true;
+
+        // two edges with the same label cut off the squares between them
+        if (!suspect && label1 != 0 && label1 == label2) {
+            if (child1 != -1 && child2 != -1) {
+                if (cutDisc[child1] < cutDisc[child2]) {
+                    suspect = isInSubtree(target, child1) && !isInSubtree(target, child2);
+                } else {
+                    suspect = isInSubtree(target, child2) && !isInSubtree(target, child1);
+                }
+            }
+            else if (child1 != -1) suspect = isInSubtree(target, child1);
+            else if (child2 != -1) suspect = isInSubtree(target, child2);
         }
 
-        return valid;
+        return suspect && isSlotBlockingPath(slot, vertical, player, yGoal);
     }
 
     /**
-     * isAnyWallBlocking method
+     * calcTreeChild method
      * <p>
-     * Checks if any wall is blocking the desired move
+     * Gets the lower node of an edge if it is a tree edge of the last cut analysis
      *
-     * @param pos {@code int[]} - The start position
-     * @param dir {@code char} - The direction to travel in
-     * @return {@code boolean} - Whether a wall is blocking the direction
+     * @param a {@code int} - The first square of the edge
+     * @param b {@code int} - The second square of the edge
+     * @return {@code int} - The lower square, or -1 if the edge is not a tree edge
      */
-    private boolean isAnyWallBlocking(int[] pos, char dir) {
+    private int calcTreeChild(int a, int b) {
         // declare variables
-        boolean blocking = false;
+        int child = -1;
 
-        // iterate over all walls
-        for (Wall w : walls) if (w.isBlocking(pos, dir)) blocking = true;
+        if (cutStamps[a] == cutStamp && cutStamps[b] == cutStamp) {
+            if (cutParent[b] == a) child = b;
+            else if (cutParent[a] == b) child = a;
+        }
 
-        return blocking;
+        return child;
     }
 
     /**
-     * isWallBlockingPath method
+     * calcCutLabel method
      * <p>
-     * Checks whether it is possible for a pawn to reach the end of the board if a wall is placed
+     * Gets the label of an edge from the last cut analysis (0 if the edge cannot reach the goal row)
      *
-     * @param self {@code state.component.Pawn} - The pawn to check
-     * @param wall {@code state.component.Wall} - The new wall to place
-     * @return {@code boolean} - Whether the wall blocks the pawn's path to the opposite side of the board
+     * @param child {@code int} - The lower square of the edge, or -1 if it is not a tree edge
+     * @param a {@code int} - The first square of the edge
+     * @param b {@code int} - The second square of the edge
+     * @return {@code long} - The label of the edge
      */
-    public boolean isWallBlockingPath(Pawn self, Wall wall) {
+    private long calcCutLabel(int child, int a, int b) {
         // declare variables
-        boolean blocking;
+        long label = 0;
 
-        // temporarily add the new wall to the set of all walls
-        walls.add(wall);
+        if (child != -1) label = cutLabels[child];
+        else if (cutStamps[a] == cutStamp) label = backEdgeLabels[calcEdgeIndex(a, b)];
 
-        blocking = calcDistanceToGoal(self) == Integer.MAX_VALUE;
-
-        // remove the new wall from the set of all walls and return the pawn to the original position
-        walls.remove(wall);
-
-        return blocking;
+        return label;
     }
 
     /**
-     * validateWallPlace method
+     * isInSubtree method
      * <p>
-     * Checks if a wall placement is valid on the current board
+     * Checks if a node is in the subtree of another node in the last cut analysis
      *
-     * @param owner    {@code state.component.Pawn} - The owner of the wall
-     * @param pos      {@code int[]} - The position of the wall
-     * @param vertical {@code boolean} - Whether the wall is vertical
-     * @return {@code boolean} - If the placement is valid
+     * @param node {@code int} - The node to check
+     * @param root {@code int} - The root of the subtree
+     * @return {@code boolean} - Whether the node is in the subtree
      */
-    public boolean validateWallPlace(Pawn owner, int[] pos, boolean vertical) {
-        // declare variables
-        Pawn other;
-        if (owner.getId() == 1) other = getP2();
-        else other = getP1();
-
-        // check if the owner has any walls left and call validateWallPos
-        return wallsRemaining[owner.getId() - 1] > 0 &&
-                validateWall(new Wall(owner.getId(), pos, vertical), walls) &&
-                !isWallBlockingPath(other, new Wall(owner.getId(), pos, vertical));
+    private boolean isInSubtree(int node, int root) {
+        return cutDisc[root] <= cutDisc[node] && cutDisc[node] <= cutEnd[root];
     }
 
     /**
@@ -845,8 +2354,8 @@ public class Board implements Serializable {
         Wall wall;
 
         // iterate over all possible wall placements
-        for (int i = 0; i < SIZE - 1; i++) {
-            for (int j = 1; j < SIZE; j++) {
+        for (int i = 0; i < size - 1; i++) {
+            for (int j = 1; j < size; j++) {
                 wall = new Wall(self.getId(), new int[]{i, j}, true);
                 if (validateWallPlace(self, new int[]{i, j}, true)) validWalls.add(wall);
 
@@ -874,7 +2383,7 @@ public class Board implements Serializable {
 
         // check if the new position is a valid move
         if (validateWallPlace(owner, pos, vertical)) {
-            walls.add(new Wall(owner.getId(), pos, vertical));
+            addWall(toSlot(pos), vertical, owner.getId());
             wallsRemaining[owner.getId() - 1]--;
             success = true;
         }
@@ -892,7 +2401,7 @@ public class Board implements Serializable {
      * @param vertical {@code boolean} - Whether the wall is vertical
      */
     public void placeWallTemp(Pawn owner, int[] pos, boolean vertical) {
-        walls.add(new Wall(owner.getId(), pos, vertical));
+        addWall(toSlot(pos), vertical, owner.getId());
     }
 
     /**
@@ -904,19 +2413,18 @@ public class Board implements Serializable {
      */
     public void removeWallTemp(Wall wall) {
         // declare variables
-        boolean success = false;
-        Wall toRemove = null;
+        int slot;
 
-        // check if the wall is in the set of walls
-        for (Wall w : walls) {
-            if (w.getOwner() == wall.getOwner() && Arrays.equals(w.getPos(), wall.getPos()) && w.isVertical() == wall.isVertical()) {
-                toRemove = w;
-                success = true;
+        // check if the wall is in the wall masks
+        if (validateWallPos(wall, size)) {
+            slot = toSlot(wall.getPos());
+
+            // remove the wall if the orientation and owner match
+            if (testBit(wall.isVertical() ? vertWalls : horizWalls, slot) &&
+                    testBit(p2Walls, slot) == (wall.getOwner() == 2)) {
+                removeWall(slot);
             }
         }
-
-        // remove the wall
-        if (success) walls.remove(toRemove);
     }
 
     /**
@@ -928,11 +2436,31 @@ public class Board implements Serializable {
      */
     public void doAction(int[] action) {
         // the first element of the instruction is the type of instruction (0 for move, 1 for wall place)
-        // execute a pawn move
-        if (action[0] == 0) getCurrentPawn().moveTemp(new int[]{action[1], action[2]});
+        doAction(action[0] == 0 ? encodeMove(action[1], action[2]) : encodeWall(action[1], action[2], action[3] == 1));
+    }
+
+    /**
+     * doAction
+     * <p>
+     * Executes a packed action on the board, following the rules (walls count against the player's remaining walls)
+     * without checking that it is valid. Pawn moves push the square the pawn left onto the undo stack.
+     *
+     * @param action {@code int} - The packed action to execute
+     */
+    public void doAction(int action) {
+        // execute a pawn move, remembering where the pawn came from
+        if (!isWallAction(action)) {
+            if (undoCount == undoSquares.length) undoSquares = Arrays.copyOf(undoSquares, undoCount * 2);
+            undoSquares[undoCount++] = pawnSquares[current - 1];
+
+            setPawnSquare(getCurrentPawn(), new int[]{getActionX(action), getActionY(action)});
+        }
 
             // execute a wall placement
-        else placeWallTemp(getCurrentPawn(), new int[]{action[1], action[2]}, action[3] == 1);
+        else {
+            addWall(toSlot(getActionX(action), getActionY(action)), isVerticalAction(action), current);
+            wallsRemaining[current - 1]--;
+        }
 
         // next player
         nextPlayer();
@@ -946,14 +2474,34 @@ public class Board implements Serializable {
      * @param action {@code int[]} - The instruction to revert
      */
     public void undoAction(int[] action) {
+        undoAction(action[0] == 0 ? encodeMove(action[1], action[2]) : encodeWall(action[1], action[2], action[3] == 1));
+    }
+
+    /**
+     * undoAction
+     * <p>
+     * Reverts the last packed action executed by doAction (actions must be undone in the reverse order they were done)
+     *
+     * @param action {@code int} - The packed action to revert
+     */
+    public void undoAction(int action) {
+        // declare variables
+        int square;
+
         // previous player
         prevPlayer();
 
-        // revert a pawn move
-        if (action[0] == 0) getCurrentPawn().moveBackTemp();
+        // revert a pawn move to the square on top of the undo stack
+        if (!isWallAction(action)) {
+            square = undoSquares[--undoCount];
+            setPawnSquare(getCurrentPawn(), new int[]{square % size, square / size});
+        }
 
-            // revert a wall placement
-        else removeWallTemp(new Wall(current, new int[]{action[1], action[2]}, action[3] == 1));
+            // revert a wall placement and give the wall back
+        else {
+            removeWall(toSlot(getActionX(action), getActionY(action)));
+            wallsRemaining[current - 1]++;
+        }
     }
 
     /**
@@ -964,7 +2512,7 @@ public class Board implements Serializable {
      * @return {@code Board} - The copy of the board
      */
     public Board copy() {
-        return new Board(p1.copy(), p2.copy(), new HashSet<Wall>(walls), current);
+        return new Board(this);
     }
 
     /**
@@ -992,16 +2540,11 @@ public class Board implements Serializable {
             board = (Board) obj;
 
             // compare each field
-            if (p1.getId() != board.getP1().getId() || p2.getId() != board.getP2().getId()) equal = false;
-            if (p1.getX() != board.getP1().getX() || p1.getY() != board.getP1().getY()) equal = false;
-            if (p2.getX() != board.getP2().getX() || p2.getY() != board.getP2().getY()) equal = false;
-            if (current != board.getCurrentPlayer()) equal = false;
-            if (getAllWalls().size() != board.getAllWalls().size()) equal = false;
-            if (equal) {
-                for (Wall w : walls) {
-                    if (!board.getAllWalls().contains(w)) equal = false;
-                }
-            }
+            if (pawnSquares[0] != board.pawnSquares[0] || pawnSquares[1] != board.pawnSquares[1]) equal = false;
+            if (current != board.current) equal = false;
+            if (size != board.size) equal = false;
+            else if (!Arrays.equals(horizWalls, board.horizWalls) || !Arrays.equals(vertWalls, board.vertWalls)) equal = false;
+            else if (!Arrays.equals(p2Walls, board.p2Walls)) equal = false;
         }
 
         return equal;
@@ -1019,25 +2562,7 @@ public class Board implements Serializable {
      */
     @Override
     public int hashCode() {
-        // declare variables
-        Object[] hashArray = new Object[walls.size() + 7];
-        int counter = 7;
-
-        // add fields to hashArray
-        hashArray[0] = p1.getId();
-        hashArray[1] = p2.getId();
-        hashArray[2] = p1.getX();
-        hashArray[3] = p1.getY();
-        hashArray[4] = p2.getX();
-        hashArray[5] = p2.getY();
-        hashArray[6] = current;
-
-        for (Wall wall : walls) {
-            hashArray[counter] = wall;
-            counter++;
-        }
-
-        // return the java array hash code
-        return Arrays.hashCode(hashArray);
+        // fold the zobrist key into an int
+        return (int) (key ^ (key >>> 32));
     }
 }
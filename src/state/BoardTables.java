@@ -0,0 +1,81 @@
+package state;
+
+import java.util.Random;
+
+/**
+ * state.BoardTables class
+ * <p>
+ * Holds the tables which only depend on the size of the board (zobrist keys and square neighbours).
+ * They are built once for each size and shared by every board of that size.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+class BoardTables {
+    // declare constants
+    private static final BoardTables[] CACHE = new BoardTables[Board.getMaxSize() + 1]; // [size] the tables built so far
+
+    // declare fields
+    final long[][] pawnKeys; // [player][square]
+    final long[][][] wallKeys; // [owner][vertical][slot]
+    final long sideKey; // toggled when player 2 is to move
+    final int[][] neighbours; // [square][dir] the next square over (-1 off the board)
+
+    /**
+     * state.BoardTables constructor
+     * <p>
+     * Constructor for the tables of one board size
+     *
+     * @param size {@code int} - The size of the board (side length)
+     */
+    private BoardTables(int size) {
+        // declare variables
+        Random random = new Random(Board.ZOBRIST_SEED + size - Board.getDefaultSize()); // the standard size keeps its original keys
+        int wallSpan = size - 1;
+        int x;
+        int y;
+
+        pawnKeys = new long[2][size * size];
+        wallKeys = new long[2][2][wallSpan * wallSpan];
+        neighbours = new int[size * size][4];
+
+        // generate the zobrist keys
+        for (int i = 0; i < size * size; i++) {
+            pawnKeys[0][i] = random.nextLong();
+            pawnKeys[1][i] = random.nextLong();
+        }
+
+        for (int i = 0; i < wallSpan * wallSpan; i++) {
+            wallKeys[0][0][i] = random.nextLong();
+            wallKeys[0][1][i] = random.nextLong();
+            wallKeys[1][0][i] = random.nextLong();
+            wallKeys[1][1][i] = random.nextLong();
+        }
+
+        sideKey = random.nextLong();
+
+        // precompute the neighbours of every square (north, east, south, west)
+        for (int square = 0; square < size * size; square++) {
+            for (int dir = 0; dir < 4; dir++) {
+                x = square % size + (dir == 1 ? 1 : dir == 3 ? -1 : 0);
+                y = square / size + (dir == 0 ? 1 : dir == 2 ? -1 : 0);
+
+                neighbours[square][dir] = x >= 0 && x < size && y >= 0 && y < size ? x + y * size : -1;
+            }
+        }
+    }
+
+    /**
+     * forSize method
+     * <p>
+     * Gets the tables for a board size, building them the first time the size is used
+     *
+     * @param size {@code int} - The size of the board (side length)
+     * @return {@code state.BoardTables} - The shared tables
+     */
+    static synchronized BoardTables forSize(int size) {
+        if (CACHE[size] == null) CACHE[size] = new BoardTables(size);
+
+        return CACHE[size];
+    }
+}
@@ -1,7 +1,6 @@
 package state.component;
 
 import java.io.Serializable;
-import java.util.*;
 
 /**
  * state.component.Pawn class
@@ -15,49 +14,56 @@ import java.util.*;
 public class Pawn implements Serializable {
     // declare constants
     private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_BOARD_SIZE = 9;
 
     // declare local variables for pawn id, human status, and position
     private final int id;
     private int[] pos;
-    private transient List<List<Integer>> posHistory = new ArrayList<List<Integer>>();
     private final boolean human;
+    private final int yGoal;
 
     /**
-     * state.component.Pawn constructor (empty history)
+     * state.component.Pawn constructor
      * <p>
-     * Constructor for state.component.Pawn
+     * Constructor for state.component.Pawn on the standard board
      *
      * @param id {@code int} - The id of the player (1 or 2)
      * @param pos {@code int[]} - The position of the pawn
      * @param human True if the pawn is human, false if the pawn is computer
      */
     public Pawn(int id, int[] pos, boolean human) {
-        this.id = id;
-        this.pos = new int[]{pos[0], pos[1]};
-        List<Integer> posList = new ArrayList<Integer>();
-        this.human = human;
-
-        // add the position to the history
-        posList.add(pos[0]);
-        posList.add(pos[1]);
-        posHistory.add(posList);
+        this(id, pos, human, DEFAULT_BOARD_SIZE);
     }
 
     /**
      * state.component.Pawn constructor
      * <p>
-     * Constructor for state.component.Pawn (with a known position)
+     * Constructor for state.component.Pawn on a board of any size
      *
-     * @param id         {@code int} - The id of the player (1 or 2)
-     * @param pos        {@code int[]} - The position of the pawn
-     * @param posHistory {@code List<List<Integer>>} - The previous positions of the pawn
-     * @param human      True if the pawn is human, false if the pawn is computer
+     * @param id {@code int} - The id of the player (1 or 2)
+     * @param pos {@code int[]} - The position of the pawn
+     * @param human True if the pawn is human, false if the pawn is computer
+     * @param boardSize {@code int} - The size of the board (side length)
      */
-    public Pawn(int id, int[] pos, List<List<Integer>> posHistory, boolean human) {
+    public Pawn(int id, int[] pos, boolean human, int boardSize) {
         this.id = id;
         this.pos = new int[]{pos[0], pos[1]};
-        this.posHistory = new ArrayList<>(posHistory);
         this.human = human;
+        this.yGoal = id == 1 ? boardSize - 1 : 0;
+    }
+
+    /**
+     * state.component.Pawn copy constructor
+     * <p>
+     * Constructor for a copy of a state.component.Pawn
+     *
+     * @param other {@code state.component.Pawn} - The pawn to copy
+     */
+    private Pawn(Pawn other) {
+        this.id = other.id;
+        this.pos = new int[]{other.pos[0], other.pos[1]};
+        this.human = other.human;
+        this.yGoal = other.yGoal;
     }
 
     /**
@@ -123,7 +129,7 @@ public class Pawn implements Serializable {
      * @return {@code int} - The y-coordinate of the goal
      */
     public int getYGoal() {
-        return id == 1 ? 8 : 0;
+        return yGoal;
     }
 
     /**
@@ -134,41 +140,9 @@ public class Pawn implements Serializable {
      * @param newPos {@code int[]} - The new position
      */
     public void move(int[] newPos) {
-        // initialize a variable newPosList to store the current position
-        List<Integer> newPosList = new ArrayList<Integer>();
-        newPosList.add(newPos[0]);
-        newPosList.add(newPos[1]);
-
-        // add newPosList to the history of positions
-        posHistory.add(newPosList);
-
-        // set the position to the new position
-        pos = new int[]{newPos[0], newPos[1]};
-    }
-
-    /**
-     * moveTemp method
-     * <p>
-     * Moves the pawn's position without changing the history (does not validate)
-     *
-     * @param newPos {@code int[]} - The new position
-     */
-    public void moveTemp(int[] newPos) {
         pos = new int[]{newPos[0], newPos[1]};
     }
 
-    /**
-     * moveBackTemp method
-     * <p>
-     * Moves the pawn's position to the last stored position (does not validate)
-     */
-    public void moveBackTemp() {
-        pos = new int[]{
-                posHistory.get(posHistory.size() - 1).get(0),
-                posHistory.get(posHistory.size() - 1).get(1)
-        };
-    }
-
     /**
      * copy method
      * <p>
@@ -177,6 +151,6 @@ public class Pawn implements Serializable {
      * @return {@code state.component.Pawn} - the copy
      */
     public Pawn copy() {
-        return new Pawn(id, new int[]{pos[0], pos[1]}, posHistory, human);
+        return new Pawn(this);
     }
 }
@@ -0,0 +1,114 @@
+package state.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * state.util.BucketQueue class
+ * <p>
+ * Represents a priority queue of item ids (0 to capacity - 1) with small integer keys.
+ * Every key has its own bucket, so items are ordered in linear time without any allocation,
+ * and items with the same key come out in the order they were inserted.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+public class BucketQueue implements Serializable {
+    // declare constants
+    private static final long serialVersionUID = 1L;
+
+    // declare fields
+    private int[] heads; // first item in each bucket (-1 if empty)
+    private int[] tails; // last item in each bucket (-1 if empty)
+    private int[] next; // next item in the same bucket (-1 if last)
+    private int maxKey; // keys above this share the last bucket
+    private int lowest; // no bucket below this holds an item
+    private int size; // current number of items
+
+    /**
+     * BucketQueue constructor
+     * <p>
+     * Constructor for BucketQueue
+     *
+     * @param capacity {@code int} - The number of item ids
+     * @param maxKey   {@code int} - The largest key with its own bucket (larger keys, such as {@code Integer.MAX_VALUE}, go in the last bucket)
+     */
+    public BucketQueue(int capacity, int maxKey) {
+        heads = new int[maxKey + 1];
+        tails = new int[maxKey + 1];
+        next = new int[capacity];
+        this.maxKey = maxKey;
+        clear();
+    }
+
+    /**
+     * clear method
+     * <p>
+     * Empties the queue without reallocating it
+     */
+    public void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(tails, -1);
+        lowest = maxKey + 1;
+        size = 0;
+    }
+
+    /**
+     * insert method
+     * <p>
+     * Inserts an item at the back of the bucket for its key
+     *
+     * @param item {@code int} - The item id to insert (must not already be in the queue)
+     * @param key  {@code int} - The key of the item (0 or more)
+     */
+    public void insert(int item, int key) {
+        // declare variables
+        int bucket = Math.min(key, maxKey);
+
+        // link the item after the last item in its bucket
+        next[item] = -1;
+        if (tails[bucket] == -1) heads[bucket] = item;
+        else next[tails[bucket]] = item;
+        tails[bucket] = item;
+
+        lowest = Math.min(lowest, bucket);
+        size++;
+    }
+
+    /**
+     * extract method
+     * <p>
+     * Extracts the first item with the smallest key
+     *
+     * @return {@code int} - The item id, or -1 if the queue is empty
+     */
+    public int extract() {
+        // declare variables
+        int item = -1;
+
+        if (size > 0) {
+            // skip past the empty buckets
+            while (heads[lowest] == -1) lowest++;
+
+            // unlink the first item of the bucket
+            item = heads[lowest];
+            heads[lowest] = next[item];
+            if (heads[lowest] == -1) tails[lowest] = -1;
+
+            size--;
+        }
+
+        return item;
+    }
+
+    /**
+     * isEmpty method
+     * <p>
+     * Checks if the queue is empty
+     *
+     * @return {@code boolean} - Whether the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
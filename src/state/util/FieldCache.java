@@ -0,0 +1,135 @@
+package state.util;
+
+/**
+ * state.util.FieldCache class
+ * <p>
+ * Represents a fixed-size cache of the goal distance fields of recently seen wall sets, indexed by a hash of the wall masks.
+ * The fields do not depend on the pawns, so every board of the same size on a thread can share one cache: each thread
+ * has its own, which boards look up when their walls change, so copies made for helper threads or split search tasks
+ * never allocate one of their own and no cache is ever written by two threads.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+public class FieldCache {
+    // declare constants
+    private static final int BITS = 8; // log2 of the number of wall sets whose fields are cached
+    private static final ThreadLocal<FieldCache> CACHES = new ThreadLocal<FieldCache>(); // the cache of each thread
+
+    // declare fields
+    private final int size; // side length of the boards cached
+    private final int words; // number of words in each wall mask
+    private final long[] horiz; // the horizontal walls of each entry, back to back
+    private final long[] vert; // the vertical walls of each entry, back to back
+    private final boolean[] filled; // whether each entry holds a wall set
+    private final int[] dists; // both fields of each entry, back to back
+
+    /**
+     * FieldCache constructor
+     * <p>
+     * Constructor for FieldCache
+     *
+     * @param size {@code int} - The side length of the boards to cache
+     * @param words {@code int} - The number of words in each wall mask
+     */
+    private FieldCache(int size, int words) {
+        this.size = size;
+        this.words = words;
+        horiz = new long[(1 << BITS) * words];
+        vert = new long[(1 << BITS) * words];
+        filled = new boolean[1 << BITS];
+        dists = new int[(1 << BITS) * 2 * size * size];
+    }
+
+    /**
+     * forThread method
+     * <p>
+     * Gets the cache of the current thread for boards of a size, replacing one for another size
+     *
+     * @param size {@code int} - The side length of the board
+     * @param words {@code int} - The number of words in each wall mask
+     * @return {@code state.util.FieldCache} - The cache
+     */
+    public static FieldCache forThread(int size, int words) {
+        // declare variables
+        FieldCache cache = CACHES.get();
+
+        if (cache == null || cache.size != size) {
+            cache = new FieldCache(size, words);
+            CACHES.set(cache);
+        }
+
+        return cache;
+    }
+
+    /**
+     * load method
+     * <p>
+     * Copies the cached goal distance fields of a wall set, if they are cached
+     *
+     * @param horizWalls {@code long[]} - The horizontal wall mask
+     * @param vertWalls {@code long[]} - The vertical wall mask
+     * @param goalDist {@code int[][]} - The fields to copy into ([player][square])
+     * @return {@code boolean} - Whether the fields were cached
+     */
+    public boolean load(long[] horizWalls, long[] vertWalls, int[][] goalDist) {
+        // declare variables
+        int index = calcIndex(horizWalls, vertWalls);
+        int offset = index * 2 * size * size;
+        boolean found = filled[index];
+
+        // every word of both masks has to match
+        for (int word = 0; word < words && found; word++) {
+            found = horiz[index * words + word] == horizWalls[word] && vert[index * words + word] == vertWalls[word];
+        }
+
+        if (found) {
+            System.arraycopy(dists, offset, goalDist[0], 0, size * size);
+            System.arraycopy(dists, offset + size * size, goalDist[1], 0, size * size);
+        }
+
+        return found;
+    }
+
+    /**
+     * store method
+     * <p>
+     * Caches the goal distance fields of a wall set, replacing whatever was in its entry
+     *
+     * @param horizWalls {@code long[]} - The horizontal wall mask
+     * @param vertWalls {@code long[]} - The vertical wall mask
+     * @param goalDist {@code int[][]} - The fields to cache ([player][square])
+     */
+    public void store(long[] horizWalls, long[] vertWalls, int[][] goalDist) {
+        // declare variables
+        int index = calcIndex(horizWalls, vertWalls);
+        int offset = index * 2 * size * size;
+
+        System.arraycopy(goalDist[0], 0, dists, offset, size * size);
+        System.arraycopy(goalDist[1], 0, dists, offset + size * size, size * size);
+        System.arraycopy(horizWalls, 0, horiz, index * words, words);
+        System.arraycopy(vertWalls, 0, vert, index * words, words);
+        filled[index] = true;
+    }
+
+    /**
+     * calcIndex method
+     * <p>
+     * Gets the entry of a wall set
+     *
+     * @param horizWalls {@code long[]} - The horizontal wall mask
+     * @param vertWalls {@code long[]} - The vertical wall mask
+     * @return {@code int} - The entry index
+     */
+    private int calcIndex(long[] horizWalls, long[] vertWalls) {
+        // declare variables
+        long hash = 0;
+
+        // mix in the words of both masks
+        for (int word = 0; word < words; word++) {
+            hash = ((hash ^ horizWalls[word]) * 0x9E37_79B9_7F4A_7C15L ^ vertWalls[word]) * 0xC2B2_AE3D_27D4_EB4FL;
+        }
+
+        return (int) (hash >>> (64 - BITS));
+    }
+}
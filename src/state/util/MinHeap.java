@@ -1,33 +1,41 @@
 package state.util;
 
+import java.io.Serializable;
+import java.util.Arrays;
+
 /**
  * state.util.MinHeap class
  * <p>
- * Represents a minimum heap priority queue
+ * Represents an indexed minimum heap priority queue of item ids (0 to capacity - 1).
+ * Each id is in the heap at most once, so a lower key for an item already in the heap decreases its key in place
+ * instead of inserting a duplicate. No operation allocates, and the heap can be cleared for reuse.
  *
  * @author Sean Yang
  * @version 30/05/2024
  */
-public class MinHeap {
+public class MinHeap implements Serializable {
+    // declare constants
+    private static final long serialVersionUID = 1L;
+
     // declare fields
-    int capacity; // maximum possible size of the heap
-    int[] heap; // array to store the heap
-    int[][] items; // array to store each heap item
+    int[] heap; // item id at each heap index
+    int[] keys; // key of each item id
+    int[] positions; // heap index of each item id (-1 if it is not in the heap)
     int size; // current size of the heap
 
     /**
-     * PriorityQueue constructor
+     * MinHeap constructor
      * <p>
-     * Constructor for PriorityQueue
+     * Constructor for MinHeap
      *
-     * @param n {@code int} - The capacity of the priority queue
+     * @param n {@code int} - The number of item ids (the capacity of the heap)
      */
     public MinHeap(int n) {
-        capacity = n; // set the capacity
         heap = new int[n]; // initialize the heap array
-        items = new int[n][2]; // initialize the items aray
+        keys = new int[n]; // initialize the keys array
+        positions = new int[n]; // initialize the positions array
         size = 0; // set the size to 0
-        for (int i = 0; i < n; i++) heap[i] = Integer.MAX_VALUE; // set all heap values to max value
+        Arrays.fill(positions, -1); // no item is in the heap
     }
 
     /**
@@ -69,108 +77,174 @@ public class MinHeap {
     /**
      * insert method
      * <p>
-     * Inserts a key position pair into the priority queue
+     * Inserts an item into the priority queue, or decreases its key if it is already in the queue with a higher key
      *
-     * @param K   {@code int} the key to insert
-     * @param pos {@code int[]} the position to insert
+     * @param item {@code int} - The item id to insert
+     * @param K    {@code int} - The key of the item
      */
-    public void insert(int[] pos, int K) {
-        // declare variables
-        int foo;
-        int[] bar;
-        int idx;
-
-        // insert the key and position
-        idx = size;
-        heap[idx] = K;
-        items[idx] = pos.clone();
-        size++;
-
-        // heapify-up:
-        while (idx != 0 && K < heap[parent(idx)]) {
-            // swap the current node with its parent
-            foo = heap[idx];
-            heap[idx] = heap[parent(idx)];
-            heap[parent(idx)] = foo;
-
-            // swap the current position with its parent
-            bar = items[idx].clone();
-            items[idx] = items[parent(idx)].clone();
-            items[parent(idx)] = bar.clone();
-
-            // move up the heap
-            idx = parent(idx);
+    public void insert(int item, int K) {
+        if (positions[item] == -1) {
+            // add the item to the end of the heap
+            heap[size] = item;
+            positions[item] = size;
+            keys[item] = K;
+            size++;
+
+            heapifyUp(size - 1);
         }
+        else if (K < keys[item]) decreaseKey(item, K);
+    }
+
+    /**
+     * decreaseKey method
+     * <p>
+     * Lowers the key of an item which is already in the priority queue
+     *
+     * @param item {@code int} - The item id
+     * @param K    {@code int} - The new key (no greater than the current key)
+     */
+    public void decreaseKey(int item, int K) {
+        keys[item] = K;
+        heapifyUp(positions[item]);
     }
 
     /**
      * extract method
      * <p>
-     * Extracts the minimum key position pair from the priority queue
+     * Extracts the item with the minimum key from the priority queue
      *
-     * @return {@code int[]} - The minimum key position pair
+     * @return {@code int} - The item id, or -1 if the heap is empty
      */
-    public int[] extract() {
+    public int extract() {
         // declare variables
-        int[] root = new int[2];
-        int idx = 0;
-        int smallest = -1;
-        int foo;
-        int[] bar;
-
-        // return if the heap is empty
-        if (size <= 0) {
-            root = new int[]{-1, -1};
-        }
+        int root = -1;
 
-        // return the root if the heap has only one element
-        else if (size == 1) {
+        if (size > 0) {
             // extract the root
-            root = items[0].clone();
+            root = heap[0];
+            positions[root] = -1;
+            size--; // decrement the size
 
-            // set the root to max value
-            heap[0] = Integer.MAX_VALUE;
-            items[0] = new int[2];
+            // move the last item to the root and sift it down
+            if (size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                heapifyDown(0);
+            }
+        }
 
-            size--; // decrement the size
-        } else {
-            // extract the root
-            root = items[0].clone();
+        return root;
+    }
 
-            // swap the root with the last element
-            heap[0] = heap[size - 1];
-            heap[size - 1] = Integer.MAX_VALUE;
+    /**
+     * peekKey method
+     * <p>
+     * Returns the minimum key in the priority queue
+     *
+     * @return {@code int} - The minimum key, or {@code Integer.MAX_VALUE} if the heap is empty
+     */
+    public int peekKey() {
+        return size > 0 ? keys[heap[0]] : Integer.MAX_VALUE;
+    }
 
-            // swap the root position with the last position
-            items[0] = items[size - 1].clone();
-            items[size - 1] = new int[2];
+    /**
+     * getKey method
+     * <p>
+     * Returns the key of an item in the priority queue
+     *
+     * @param item {@code int} - The item id
+     * @return {@code int} - The key of the item (only meaningful if it is in the heap)
+     */
+    public int getKey(int item) {
+        return keys[item];
+    }
 
-            size--; // decrement the size
+    /**
+     * contains method
+     * <p>
+     * Checks if an item is in the priority queue
+     *
+     * @param item {@code int} - The item id
+     * @return {@code boolean} - Whether the item is in the heap
+     */
+    public boolean contains(int item) {
+        return positions[item] != -1;
+    }
 
-            // heapify-down:
-            while (smallest != idx) {
-                // find the smallest child
-                smallest = idx;
+    /**
+     * isEmpty method
+     * <p>
+     * Checks if the priority queue is empty
+     *
+     * @return {@code boolean} - Whether the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
 
-                if (left(idx) < size && heap[left(idx)] < heap[smallest]) smallest = left(idx);
-                if (right(idx) < size && heap[right(idx)] < heap[smallest]) smallest = right(idx);
+    /**
+     * clear method
+     * <p>
+     * Empties the priority queue without reallocating it (only the items still in the heap are touched)
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) positions[heap[i]] = -1;
+        size = 0;
+    }
 
-                // swap the current node with the smallest child
-                if (smallest != idx) {
-                    foo = heap[idx];
-                    heap[idx] = heap[smallest];
-                    heap[smallest] = foo;
+    /**
+     * heapifyUp method
+     * <p>
+     * Moves the node at index i up until its parent has a key no greater than its own
+     *
+     * @param i {@code int} - The index of the node
+     */
+    void heapifyUp(int i) {
+        // declare variables
+        int item = heap[i];
+        int K = keys[item];
+
+        // shift larger parents down instead of swapping at every level
+        while (i != 0 && K < keys[heap[parent(i)]]) {
+            heap[i] = heap[parent(i)];
+            positions[heap[i]] = i;
+            i = parent(i);
+        }
 
-                    bar = items[idx].clone();
-                    items[idx] = items[smallest].clone();
-                    items[smallest] = bar.clone();
+        heap[i] = item;
+        positions[item] = i;
+    }
 
-                    idx = smallest;
-                    smallest = -1;
-                }
+    /**
+     * heapifyDown method
+     * <p>
+     * Moves the node at index i down until its children have keys no smaller than its own
+     *
+     * @param i {@code int} - The index of the node
+     */
+    void heapifyDown(int i) {
+        // declare variables
+        int item = heap[i];
+        int K = keys[item];
+        int smallest;
+        boolean moving = true;
+
+        while (moving) {
+            // find the smallest child
+            smallest = left(i);
+            if (right(i) < size && keys[heap[right(i)]] < keys[heap[smallest]]) smallest = right(i);
+
+            // shift the smaller child up if it is smaller than the item
+            moving = smallest < size && keys[heap[smallest]] < K;
+
+            if (moving) {
+                heap[i] = heap[smallest];
+                positions[heap[i]] = i;
+                i = smallest;
             }
         }
 
-        return root;
+        heap[i] = item;
+        positions[item] = i;
     }
 }
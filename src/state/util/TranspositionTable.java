@@ -0,0 +1,195 @@
+package state.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * state.util.TranspositionTable class
+ * <p>
+ * Represents a fixed-size table of search results indexed by the low bits of a 64-bit position key.
+ * Each entry holds the best move, score, depth and bound type of a search, packed into one long,
+ * so the table never grows and stores no objects. When two positions share an entry, the deeper search is kept,
+ * unless the stored one is from an older search.
+ * The table can be shared by several searching threads without locks: each entry is stored as the packed result and
+ * the key XOR the result, so a read which sees halves of two different writes fails verification and is treated as a miss.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+public class TranspositionTable {
+    // declare constants
+    public static final int EXACT = 1; // the score is the exact value of the position
+    public static final int LOWER = 2; // the search failed high: the value is at least the score
+    public static final int UPPER = 3; // the search failed low: the value is at most the score
+    private static final int NO_MOVE = 0xFFFF; // stored move bits meaning there is no best move
+    // entries are packed as: bits 0-15 move, 16-47 score, 48-55 depth, 56-57 bound, 58-63 generation
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int GENERATION_SHIFT = 58;
+    private static final int GENERATION_MASK = 0x3F;
+
+    // declare fields
+    private final AtomicLongArray checks; // the key of the position in each entry XOR its packed result
+    private final AtomicLongArray entries; // the packed result in each entry (0 if the entry is empty)
+    private final int mask; // the number of entries minus 1
+    private volatile int generation; // the id of the current search, so results of old searches can be replaced
+
+    /**
+     * TranspositionTable constructor
+     * <p>
+     * Constructor for TranspositionTable
+     *
+     * @param bits {@code int} - log2 of the number of entries
+     */
+    public TranspositionTable(int bits) {
+        checks = new AtomicLongArray(1 << bits);
+        entries = new AtomicLongArray(1 << bits);
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * probe method
+     * <p>
+     * Looks up the result stored for a position
+     *
+     * @param key {@code long} - The key of the position
+     * @return {@code long} - The packed result (read with getMove, getScore, getDepth and getBound), or 0 if there is none
+     */
+    public long probe(long key) {
+        // declare variables
+        int index = (int) key & mask;
+        long entry = entries.get(index);
+
+        return (checks.get(index) ^ entry) == key ? entry : 0;
+    }
+
+    /**
+     * store method
+     * <p>
+     * Stores the result of a search, unless its entry holds a deeper search of another position from the current search
+     *
+     * @param key {@code long} - The key of the position
+     * @param move {@code int} - The best move found (a packed action, or -1 if there is none)
+     * @param score {@code int} - The score of the position
+     * @param depth {@code int} - The depth the position was searched to (0 to 255)
+     * @param bound {@code int} - EXACT, LOWER or UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        // declare variables
+        int index = (int) key & mask;
+        long stored = entries.get(index);
+        long entry;
+
+        if (stored == 0 || (checks.get(index) ^ stored) == key || getGeneration(stored) != generation || depth >= getDepth(stored)) {
+            entry = (move == -1 ? NO_MOVE : move & NO_MOVE)
+                    | (score & 0xFFFF_FFFFL) << SCORE_SHIFT
+                    | (long) depth << DEPTH_SHIFT
+                    | (long) bound << BOUND_SHIFT
+                    | (long) generation << GENERATION_SHIFT;
+
+            // another thread may write the entry in between, but then the check no longer matches either result
+            entries.set(index, entry);
+            checks.set(index, key ^ entry);
+        }
+    }
+
+    /**
+     * newSearch method
+     * <p>
+     * Starts a new search, so the results of earlier searches can be replaced by shallower ones
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * clear method
+     * <p>
+     * Empties every entry without reallocating the table (no search may be using it)
+     */
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            checks.set(i, 0);
+            entries.set(i, 0);
+        }
+    }
+
+    /**
+     * countEntries method
+     * <p>
+     * Counts the entries which hold a result
+     *
+     * @return {@code int} - The number of filled entries
+     */
+    public int countEntries() {
+        // declare variables
+        int count = 0;
+
+        for (int i = 0; i <= mask; i++) if (entries.get(i) != 0) count++;
+
+        return count;
+    }
+
+    /**
+     * getMove method
+     * <p>
+     * Gets the best move of a packed result
+     *
+     * @param entry {@code long} - The packed result
+     * @return {@code int} - The packed action, or -1 if there is none
+     */
+    public static int getMove(long entry) {
+        // declare variables
+        int move = (int) entry & NO_MOVE;
+
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * getScore method
+     * <p>
+     * Gets the score of a packed result
+     *
+     * @param entry {@code long} - The packed result
+     * @return {@code int} - The score
+     */
+    public static int getScore(long entry) {
+        return (int) (entry >>> SCORE_SHIFT);
+    }
+
+    /**
+     * getDepth method
+     * <p>
+     * Gets the search depth of a packed result
+     *
+     * @param entry {@code long} - The packed result
+     * @return {@code int} - The depth
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * getBound method
+     * <p>
+     * Gets the bound type of a packed result
+     *
+     * @param entry {@code long} - The packed result
+     * @return {@code int} - EXACT, LOWER or UPPER
+     */
+    public static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * getGeneration method
+     * <p>
+     * Gets the search a packed result was stored in
+     *
+     * @param entry {@code long} - The packed result
+     * @return {@code int} - The generation
+     */
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+}
@@ -0,0 +1,336 @@
+package state;
+
+import state.component.Pawn;
+import state.component.Wall;
+
+import java.util.*;
+
+/**
+ * state.BoardTest class
+ * <p>
+ * Checks the incremental state of the board against a fresh recalculation on seeded random games.
+ * Each game plays random legal moves and walls (undoing some of them) and compares, after every action,
+ * what the board has kept up to date with what a board built from scratch with the same pawns and walls calculates.
+ * Run it with {@code javac -d out $(find src test -name '*.java') && java -cp out state.BoardTest}.
+ *
+ * @author Sean Yang
+ * @version 30/05/2024
+ */
+public class BoardTest {
+    // declare constants
+    private static final long SEED = 20240530L;
+    private static final int GAMES = 12; // random games played by each check
+    private static final int ACTIONS = 60; // actions made in each game
+    private static final int UNDO_CHANCE = 4; // one in this many actions undoes the last action instead
+    private static final int WALL_CHANCE = 2; // one in this many actions tries a wall (if the player has one left)
+    private static final int[] SIZES = {5, 9}; // board sizes played on (small boards get walled in more often)
+
+    /**
+     * main method
+     * <p>
+     * Runs every check, stopping at the first failure
+     *
+     * @param args {@code String[]} - The command line arguments
+     */
+    public static void main(String[] args) {
+        checkGoalDistances();
+        checkGoalSearch();
+        checkWallPlacements();
+        checkLoopSets();
+        checkWitnessPaths();
+        System.out.println("All board checks passed.");
+    }
+
+    /**
+     * checkGoalDistances method
+     * <p>
+     * Checks that the goal distances repaired after every wall (and restored by every undo) match a fresh search
+     */
+    private static void checkGoalDistances() {
+        playGames("goal distances", board -> {
+            Board fresh = rebuild(board, null);
+
+            for (Pawn pawn : new Pawn[]{board.getP1(), board.getP2()}) {
+                check(board.calcDistanceToGoal(pawn) == fresh.calcDistanceToGoal(fresh.getPawn(pawn.getId())),
+                        "distance to goal of player " + pawn.getId(), board);
+            }
+        });
+    }
+
+    /**
+     * checkGoalSearch method
+     * <p>
+     * Checks that the A* search from each pawn finds a path exactly as long as the pawn's goal distance
+     */
+    private static void checkGoalSearch() {
+        playGames("goal search", board -> {
+            for (Pawn pawn : new Pawn[]{board.getP1(), board.getP2()}) {
+                check(board.searchGoal(pawn.getX() + pawn.getY() * board.getSize(), pawn.getYGoal()) == board.calcDistanceToGoal(pawn),
+                        "searched distance to goal of player " + pawn.getId(), board);
+            }
+        });
+    }
+
+    /**
+     * checkWallPlacements method
+     * <p>
+     * Checks that every wall the board allows (from its cut analysis) is one which leaves both pawns a path on a fresh board,
+     * and that every such wall is allowed
+     */
+    private static void checkWallPlacements() {
+        playGames("wall placements", board -> {
+            Pawn self = board.getCurrentPawn();
+
+            for (Wall wall : allWalls(board, self)) {
+                check(board.validateWallPlace(self, wall.getPos(), wall.isVertical()) == isWallLegal(board, self, wall),
+                        "legality of " + describe(wall), board);
+            }
+        });
+    }
+
+    /**
+     * checkLoopSets method
+     * <p>
+     * Checks which walls block each pawn on a copy of the board, where the sets of joined wall points (which decide whether
+     * a wall closes a loop and needs a path search at all) are carried over from the game but no search has been cached yet
+     */
+    private static void checkLoopSets() {
+        playGames("loop sets", board -> checkBlocking(board.copy(), board));
+    }
+
+    /**
+     * checkWitnessPaths method
+     * <p>
+     * Checks which walls block each pawn on the board the game is played on, so the witness paths (and the paths found by
+     * earlier searches) are carried from one action to the next, through pawn moves, new walls and undos
+     */
+    private static void checkWitnessPaths() {
+        playGames("witness paths", board -> checkBlocking(board, board));
+    }
+
+    /**
+     * checkBlocking method
+     * <p>
+     * Checks that isWallBlockingPath agrees with a fresh board for every wall and both pawns
+     *
+     * @param target {@code state.Board} - The board to ask (the same position as the board)
+     * @param board {@code state.Board} - The current board
+     */
+    private static void checkBlocking(Board target, Board board) {
+        // declare variables
+        Board fresh;
+        boolean blocking;
+
+        for (Wall wall : allWalls(board, board.getCurrentPawn())) {
+            for (Pawn pawn : new Pawn[]{board.getP1(), board.getP2()}) {
+                blocking = false;
+
+                // a wall which does not fit blocks nothing
+                if (Board.validateWall(wall, board.getAllWalls(), board.getSize())) {
+                    fresh = rebuild(board, wall);
+                    blocking = fresh.calcDistanceToGoal(fresh.getPawn(pawn.getId())) == Integer.MAX_VALUE;
+                }
+
+                check(target.isWallBlockingPath(target.getPawn(pawn.getId()), wall) == blocking,
+                        "blocking of player " + pawn.getId() + " by " + describe(wall), board);
+            }
+        }
+    }
+
+    /**
+     * playGames method
+     * <p>
+     * Plays the seeded random games of a check, running it on the board after every action
+     *
+     * @param name {@code String} - The name of the check
+     * @param check {@code Check} - The check to run
+     */
+    private static void playGames(String name, Check check) {
+        // declare variables
+        Random random = new Random(SEED);
+        Deque<Integer> played = new ArrayDeque<Integer>();
+        int positions = 0;
+        Board board;
+        int action;
+
+        for (int size : SIZES) {
+            for (int game = 0; game < GAMES; game++) {
+                board = new Board(false, size);
+                played.clear();
+
+                for (int i = 0; i < ACTIONS && !isOver(board); i++) {
+                    // undo the last action now and then, otherwise make a random legal one
+                    if (!played.isEmpty() && random.nextInt(UNDO_CHANCE) == 0) board.undoAction(played.pop());
+                    else {
+                        action = pickAction(board, random);
+                        board.doAction(action);
+                        played.push(action);
+                    }
+
+                    check.run(board);
+                    positions++;
+                }
+            }
+        }
+
+        System.out.printf("%s: %d positions passed%n", name, positions);
+    }
+
+    /**
+     * pickAction method
+     * <p>
+     * Picks a random legal action for the player to move (a wall if one is tried and legal, otherwise a pawn move)
+     *
+     * @param board {@code state.Board} - The current board
+     * @param random {@code Random} - The random number generator
+     * @return {@code int} - The packed action
+     */
+    private static int pickAction(Board board, Random random) {
+        // declare variables
+        Pawn self = board.getCurrentPawn();
+        List<List<Integer>> moves = new ArrayList<List<Integer>>(board.calcValidPawnMoves(self));
+        List<Integer> move;
+        int[] pos = {random.nextInt(board.getSize() - 1), 1 + random.nextInt(board.getSize() - 1)};
+        boolean vertical = random.nextBoolean();
+        int action;
+
+        if (random.nextInt(WALL_CHANCE) == 0 && board.validateWallPlace(self, pos, vertical)) {
+            action = Board.encodeWall(pos[0], pos[1], vertical);
+        }
+        else {
+            moves.sort(Comparator.comparing((List<Integer> m) -> m.get(0)).thenComparing(m -> m.get(1)));
+            move = moves.get(random.nextInt(moves.size()));
+            action = Board.encodeMove(move.get(0), move.get(1));
+        }
+
+        return action;
+    }
+
+    /**
+     * isOver method
+     * <p>
+     * Checks if either pawn has reached its goal row
+     *
+     * @param board {@code state.Board} - The current board
+     * @return {@code boolean} - Whether the game is over
+     */
+    private static boolean isOver(Board board) {
+        return board.getP1().getY() == board.getP1().getYGoal() || board.getP2().getY() == board.getP2().getYGoal();
+    }
+
+    /**
+     * rebuild method
+     * <p>
+     * Builds a board from scratch with the same pawns, walls and player to move, plus an extra wall
+     *
+     * @param board {@code state.Board} - The board to copy
+     * @param extra {@code state.component.Wall} - The wall to add (null for none)
+     * @return {@code state.Board} - The new board
+     */
+    private static Board rebuild(Board board, Wall extra) {
+        // declare variables
+        Set<Wall> walls = board.getAllWalls();
+
+        if (extra != null) walls.add(extra);
+
+        return new Board(board.getP1(), board.getP2(), walls, board.getCurrentPlayer(), board.getSize());
+    }
+
+    /**
+     * isWallLegal method
+     * <p>
+     * Checks a wall placement the slow way: the player has a wall left, the wall fits among the others,
+     * and a board built from scratch with the wall leaves both pawns a path to their goal rows
+     *
+     * @param board {@code state.Board} - The current board
+     * @param owner {@code state.component.Pawn} - The player placing the wall
+     * @param wall {@code state.component.Wall} - The wall
+     * @return {@code boolean} - Whether the wall can be placed
+     */
+    private static boolean isWallLegal(Board board, Pawn owner, Wall wall) {
+        // declare variables
+        boolean legal = board.getWallsRemaining(owner) > 0 && Board.validateWall(wall, board.getAllWalls(), board.getSize());
+        Board fresh;
+
+        if (legal) {
+            fresh = rebuild(board, wall);
+            legal = fresh.calcDistanceToGoal(fresh.getP1()) != Integer.MAX_VALUE
+                    && fresh.calcDistanceToGoal(fresh.getP2()) != Integer.MAX_VALUE;
+        }
+
+        return legal;
+    }
+
+    /**
+     * allWalls method
+     * <p>
+     * Lists every wall position on the board in both orientations
+     *
+     * @param board {@code state.Board} - The board
+     * @param owner {@code state.component.Pawn} - The owner of the walls
+     * @return {@code List<state.component.Wall>} - The walls
+     */
+    private static List<Wall> allWalls(Board board, Pawn owner) {
+        // declare variables
+        List<Wall> walls = new ArrayList<Wall>();
+
+        for (int x = 0; x < board.getSize() - 1; x++) {
+            for (int y = 1; y < board.getSize(); y++) {
+                walls.add(new Wall(owner.getId(), new int[]{x, y}, true));
+                walls.add(new Wall(owner.getId(), new int[]{x, y}, false));
+            }
+        }
+
+        return walls;
+    }
+
+    /**
+     * describe method
+     * <p>
+     * Describes a wall for a failure message
+     *
+     * @param wall {@code state.component.Wall} - The wall
+     * @return {@code String} - The description
+     */
+    private static String describe(Wall wall) {
+        return String.format("%s wall at (%d, %d)", wall.isVertical() ? "vertical" : "horizontal", wall.getX(), wall.getY());
+    }
+
+    /**
+     * check method
+     * <p>
+     * Fails with a description of the board if a condition does not hold
+     *
+     * @param condition {@code boolean} - The condition
+     * @param what {@code String} - What was checked
+     * @param board {@code state.Board} - The board it was checked on
+     */
+    private static void check(boolean condition, String what, Board board) {
+        // declare variables
+        StringJoiner walls = new StringJoiner(", ");
+
+        if (!condition) {
+            for (Wall wall : board.getAllWalls()) walls.add(describe(wall));
+
+            throw new AssertionError(String.format("%s differs on a %dx%d board (player 1 at %s, player 2 at %s, walls: %s)",
+                    what, board.getSize(), board.getSize(), Arrays.toString(board.getP1().getPos()),
+                    Arrays.toString(board.getP2().getPos()), walls));
+        }
+    }
+
+    /**
+     * Check interface
+     * <p>
+     * Represents a check run on the board after every action of a game
+     */
+    private interface Check {
+        /**
+         * run method
+         * <p>
+         * Runs the check
+         *
+         * @param board {@code state.Board} - The current board
+         */
+        void run(Board board);
+    }
+}